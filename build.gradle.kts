@@ -206,4 +206,37 @@ subprojects {
         options.encoding = "UTF-8"
         options.release.set(21)
     }
+
+    // JMH microbenchmarks live in each module's src/jmh and see its main classes. They are not part
+    // of the standard build; run them explicitly, optionally filtered by a benchmark regex:
+    //   ./gradlew :common:jmh
+    //   ./gradlew :fabric:jmh -Pjmh.include=TrimSyncPayload
+    // The GC profiler is always on, so every result comes with its allocation rate per operation.
+    val sourceSets = the<SourceSetContainer>()
+    val jmh = sourceSets.create("jmh") {
+        val main = sourceSets.getByName("main")
+        compileClasspath += main.output + main.compileClasspath
+        runtimeClasspath += main.output + main.runtimeClasspath
+    }
+
+    dependencies {
+        "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+        "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+    }
+
+    tasks.register<JavaExec>("jmh") {
+        group = "benchmark"
+        description = "Runs JMH microbenchmarks with allocation profiling"
+        classpath = jmh.runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+
+        val output = layout.buildDirectory.file("benchmarks/jmh.json").get().asFile
+        args(
+            findProperty("jmh.include")?.toString() ?: ".*",
+            "-prof", "gc",
+            "-rf", "json",
+            "-rff", output.absolutePath
+        )
+        doFirst { output.parentFile.mkdirs() }
+    }
 }
@@ -42,6 +42,11 @@ configurations.all {
     }
 }
 
+// The dev bundle's server classes are compile-only for the plugin, but benchmarks run them
+sourceSets.named("jmh") {
+    runtimeClasspath += sourceSets.main.get().compileClasspath
+}
+
 tasks.jar {
     from(project(":common").sourceSets.main.get().output)
 }
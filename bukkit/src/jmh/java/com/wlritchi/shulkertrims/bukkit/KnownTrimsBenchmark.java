@@ -0,0 +1,119 @@
+package com.wlritchi.shulkertrims.bukkit;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimMaterials;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Last known trim tracking in {@link KnownTrims}, which the change detection task runs for every
+ * loaded chunk once a second. The map holds {@link #boxesPerChunk} boxes in each chunk of a {@link
+ * #CHUNK_SPAN} by {@link #CHUNK_SPAN} area, about what a player's view distance keeps loaded.
+ *
+ * <p>{@link #checkChunk} is the steady-state work for one chunk with nothing changed: a key and a
+ * lookup per box, then the stale sweep. Trims are stored by pair ID, so the registry is rebuilt
+ * with the vanilla materials first.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KnownTrimsBenchmark {
+  private static final String WORLD = "world";
+  private static final int CHUNK_SPAN = 32;
+
+  @Param({"4", "32"})
+  public int boxesPerChunk;
+
+  private final KnownTrims known = new KnownTrims();
+  private ShulkerTrim trim;
+  private int[][] boxes;
+  private int next;
+
+  /** Boxes in the chunk the per-chunk benchmarks check. */
+  private int[][] chunkBoxes;
+
+  private IntSet chunkPositions;
+
+  @Setup
+  public void setup() {
+    TrimRegistry.global().rebuild(List.of("minecraft:wayfinder"), TrimMaterials.COLORS.keySet());
+    trim = TrimRegistry.global().of("minecraft:wayfinder", "minecraft:netherite");
+    boxes = new int[CHUNK_SPAN * CHUNK_SPAN * boxesPerChunk][];
+    int i = 0;
+    for (int chunkX = 0; chunkX < CHUNK_SPAN; chunkX++) {
+      for (int chunkZ = 0; chunkZ < CHUNK_SPAN; chunkZ++) {
+        for (int box = 0; box < boxesPerChunk; box++) {
+          int[] pos = {chunkX * 16 + (box & 15), 64 + (box >> 4), chunkZ * 16};
+          known.put(WORLD, pos[0], pos[1], pos[2], trim);
+          boxes[i++] = pos;
+        }
+      }
+    }
+
+    chunkBoxes = new int[boxesPerChunk][];
+    chunkPositions = new IntOpenHashSet();
+    for (int box = 0; box < boxesPerChunk; box++) {
+      chunkBoxes[box] = new int[] {16 * 16 + (box & 15), 64 + (box >> 4), 16 * 16};
+      chunkPositions.add(KnownTrims.localPos(chunkBoxes[box][0], chunkBoxes[box][1], 16 * 16));
+    }
+  }
+
+  private int[] nextBox() {
+    int[] box = boxes[next];
+    next = next + 1 < boxes.length ? next + 1 : 0;
+    return box;
+  }
+
+  @Benchmark
+  public int localPos() {
+    return KnownTrims.localPos(123, 64, -456);
+  }
+
+  @Benchmark
+  public ShulkerTrim get() {
+    int[] box = nextBox();
+    return known.get(WORLD, box[0], box[1], box[2]);
+  }
+
+  @Benchmark
+  public void put() {
+    int[] box = nextBox();
+    known.put(WORLD, box[0], box[1], box[2], trim);
+  }
+
+  @Benchmark
+  public void removeStale() {
+    known.removeStale(WORLD, 16, 16, chunkPositions);
+  }
+
+  @Benchmark
+  public int checkChunk() {
+    IntSet existing = new IntOpenHashSet();
+    int changed = 0;
+    for (int[] box : chunkBoxes) {
+      existing.add(KnownTrims.localPos(box[0], box[1], box[2]));
+      if (known.get(WORLD, box[0], box[1], box[2]) != trim) {
+        changed++;
+      }
+    }
+    known.removeStale(WORLD, 16, 16, existing);
+    return changed;
+  }
+}
@@ -0,0 +1,60 @@
+package com.wlritchi.shulkertrims.bukkit;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.nbt.CompoundTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Trim NBT reads and writes in {@link ShulkerTrimStorage}. Item and block paths go through
+ * CraftBukkit and need a running server, so only the NBT layer under them is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShulkerTrimStorageBenchmark {
+
+  private ShulkerTrim trim;
+  private CompoundTag trimmed;
+  private CompoundTag untrimmed;
+
+  @Setup
+  public void setup() {
+    trim = TrimRegistry.global().of("minecraft:wayfinder", "minecraft:netherite");
+    trimmed = new CompoundTag();
+    ShulkerTrimStorage.writeTrimToNbt(trimmed, trim);
+    trimmed.put("Items", new CompoundTag());
+    untrimmed = new CompoundTag();
+    untrimmed.put("Items", new CompoundTag());
+  }
+
+  @Benchmark
+  public CompoundTag write() {
+    CompoundTag nbt = new CompoundTag();
+    ShulkerTrimStorage.writeTrimToNbt(nbt, trim);
+    return nbt;
+  }
+
+  @Benchmark
+  public ShulkerTrim read() {
+    return ShulkerTrimStorage.readTrimFromNbt(trimmed);
+  }
+
+  @Benchmark
+  public ShulkerTrim readUntrimmed() {
+    return ShulkerTrimStorage.readTrimFromNbt(untrimmed);
+  }
+}
@@ -0,0 +1,63 @@
+package com.wlritchi.shulkertrims.bukkit;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sync packet encoding in {@link TrimSyncNetwork}, for a single box and for a chunk of {@link
+ * #CHUNK_TRIMS} boxes. Runs without a server, so the network has no plugin.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrimSyncNetworkBenchmark {
+  private static final int CHUNK_TRIMS = 64;
+
+  private final TrimSyncNetwork network = new TrimSyncNetwork(null);
+  private final List<Location> locations = new ArrayList<>();
+  private final List<ShulkerTrim> trims = new ArrayList<>();
+  private Location location;
+  private ShulkerTrim trim;
+
+  @Setup
+  public void setup() {
+    location = new Location(null, 123, 64, -456);
+    trim = TrimRegistry.global().of("minecraft:wayfinder", "minecraft:netherite");
+    for (int i = 0; i < CHUNK_TRIMS; i++) {
+      locations.add(new Location(null, i & 15, 64 + (i >> 4), 0));
+      trims.add(trim);
+    }
+  }
+
+  @Benchmark
+  public byte[] trimPacket() {
+    return network.createTrimPacket(location, trim);
+  }
+
+  @Benchmark
+  public byte[] removalPacket() {
+    return network.createTrimPacket(location, null);
+  }
+
+  @Benchmark
+  public byte[] chunkPacket() {
+    return network.createChunkPacket(0, 0, locations, trims);
+  }
+}
@@ -0,0 +1,141 @@
+package com.wlritchi.shulkertrims.bukkit;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import org.bukkit.Chunk;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The last known trim state for each shulker box location. Used to detect changes when block entity
+ * data is modified externally (e.g., via commands).
+ *
+ * <p>Boxes are grouped by world and chunk, keyed within the chunk by {@link #localPos}, so checking
+ * a chunk for removed boxes only visits that chunk's entries. Trims are stored as {@link
+ * TrimRegistry#pairId pair IDs}, which stay fixed while the plugin runs because the registry is
+ * only rebuilt when it is enabled. A trim without a pair ID, such as one from a removed datapack,
+ * is kept as an object instead. Only accessed from the server thread.
+ */
+final class KnownTrims {
+
+  private final TrimRegistry registry = TrimRegistry.global();
+
+  /** Tracked chunks by world name, then {@link Chunk#getChunkKey} key. */
+  private final Map<String, Long2ObjectMap<ChunkTrims>> worlds = new HashMap<>();
+
+  /** Tracked boxes in one chunk, by {@link #localPos}. */
+  private static final class ChunkTrims {
+    final Int2IntOpenHashMap pairIds = new Int2IntOpenHashMap();
+
+    /** Trims without a pair ID. Allocated on first use. */
+    @Nullable Int2ObjectOpenHashMap<ShulkerTrim> unindexed;
+
+    ChunkTrims() {
+      pairIds.defaultReturnValue(TrimRegistry.NO_ID);
+    }
+
+    boolean isEmpty() {
+      return pairIds.isEmpty() && (unindexed == null || unindexed.isEmpty());
+    }
+  }
+
+  /** Pack a block position into a key that is unique within its chunk. */
+  static int localPos(int x, int y, int z) {
+    return y << 8 | (z & 15) << 4 | (x & 15);
+  }
+
+  @Nullable
+  ShulkerTrim get(String worldName, int x, int y, int z) {
+    ChunkTrims chunk = chunk(worldName, x >> 4, z >> 4);
+    if (chunk == null) {
+      return null;
+    }
+    int pos = localPos(x, y, z);
+    int pairId = chunk.pairIds.get(pos);
+    if (pairId != TrimRegistry.NO_ID) {
+      return registry.byPairId(pairId);
+    }
+    return chunk.unindexed != null ? chunk.unindexed.get(pos) : null;
+  }
+
+  void put(String worldName, int x, int y, int z, ShulkerTrim trim) {
+    ChunkTrims chunk =
+        worlds
+            .computeIfAbsent(worldName, name -> new Long2ObjectOpenHashMap<>())
+            .computeIfAbsent(Chunk.getChunkKey(x >> 4, z >> 4), key -> new ChunkTrims());
+    int pos = localPos(x, y, z);
+    int pairId = registry.pairId(trim);
+    if (pairId != TrimRegistry.NO_ID) {
+      chunk.pairIds.put(pos, pairId);
+      if (chunk.unindexed != null) {
+        chunk.unindexed.remove(pos);
+      }
+    } else {
+      chunk.pairIds.remove(pos);
+      if (chunk.unindexed == null) {
+        chunk.unindexed = new Int2ObjectOpenHashMap<>();
+      }
+      chunk.unindexed.put(pos, trim);
+    }
+  }
+
+  void remove(String worldName, int x, int y, int z) {
+    ChunkTrims chunk = chunk(worldName, x >> 4, z >> 4);
+    if (chunk == null) {
+      return;
+    }
+    int pos = localPos(x, y, z);
+    chunk.pairIds.remove(pos);
+    if (chunk.unindexed != null) {
+      chunk.unindexed.remove(pos);
+    }
+    forgetIfEmpty(worldName, x >> 4, z >> 4, chunk);
+  }
+
+  /**
+   * Forget locations in a chunk that no longer hold a shulker box.
+   *
+   * @param existing {@link #localPos} keys of the shulker boxes the chunk still holds
+   */
+  void removeStale(String worldName, int chunkX, int chunkZ, IntSet existing) {
+    ChunkTrims chunk = chunk(worldName, chunkX, chunkZ);
+    if (chunk == null) {
+      return;
+    }
+    for (IntIterator it = chunk.pairIds.keySet().iterator(); it.hasNext(); ) {
+      if (!existing.contains(it.nextInt())) {
+        it.remove();
+      }
+    }
+    if (chunk.unindexed != null) {
+      for (IntIterator it = chunk.unindexed.keySet().iterator(); it.hasNext(); ) {
+        if (!existing.contains(it.nextInt())) {
+          it.remove();
+        }
+      }
+    }
+    forgetIfEmpty(worldName, chunkX, chunkZ, chunk);
+  }
+
+  private @Nullable ChunkTrims chunk(String worldName, int chunkX, int chunkZ) {
+    Long2ObjectMap<ChunkTrims> chunks = worlds.get(worldName);
+    return chunks != null ? chunks.get(Chunk.getChunkKey(chunkX, chunkZ)) : null;
+  }
+
+  private void forgetIfEmpty(String worldName, int chunkX, int chunkZ, ChunkTrims chunk) {
+    if (chunk.isEmpty()) {
+      Long2ObjectMap<ChunkTrims> chunks = worlds.get(worldName);
+      chunks.remove(Chunk.getChunkKey(chunkX, chunkZ));
+      if (chunks.isEmpty()) {
+        worlds.remove(worldName);
+      }
+    }
+  }
+}
@@ -1,6 +1,9 @@
 package com.wlritchi.shulkertrims.bukkit;
 
 import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.component.DataComponents;
 import net.minecraft.nbt.CompoundTag;
@@ -29,6 +32,12 @@ public final class ShulkerTrimStorage {
   public static final String PATTERN_KEY = "pattern";
   public static final String MATERIAL_KEY = "material";
 
+  private static final int MAX_CANONICAL_CUSTOM_DATA = 1024;
+
+  /** Shared custom_data for items whose custom_data holds only a trim. */
+  private static final Map<ShulkerTrim, CustomData> CANONICAL_CUSTOM_DATA =
+      new ConcurrentHashMap<>();
+
   /** Read trim data from a Bukkit ItemStack's custom_data component. */
   @Nullable
   public static ShulkerTrim readTrimFromItem(ItemStack bukkitStack) {
@@ -71,15 +80,44 @@ public final class ShulkerTrimStorage {
       return CraftItemStack.asBukkitCopy(nmsStack);
     }
 
-    // Write to custom_data component
+    // Write to custom_data component, sharing one instance across trim-only items
     CustomData existingData = nmsStack.get(DataComponents.CUSTOM_DATA);
-    CompoundTag nbt = existingData != null ? existingData.copyTag() : new CompoundTag();
-    writeTrimToNbt(nbt, trim);
-    nmsStack.set(DataComponents.CUSTOM_DATA, CustomData.of(nbt));
+    if (existingData == null || isTrimOnly(existingData)) {
+      nmsStack.set(DataComponents.CUSTOM_DATA, getTrimOnlyCustomData(trim));
+    } else {
+      CompoundTag nbt = existingData.copyTag();
+      writeTrimToNbt(nbt, trim);
+      nmsStack.set(DataComponents.CUSTOM_DATA, CustomData.of(nbt));
+    }
 
     return CraftItemStack.asBukkitCopy(nmsStack);
   }
 
+  /** Get the shared custom_data holding only the given trim. */
+  private static CustomData getTrimOnlyCustomData(ShulkerTrim trim) {
+    CustomData cached = CANONICAL_CUSTOM_DATA.get(trim);
+    if (cached != null) {
+      return cached;
+    }
+
+    CompoundTag nbt = new CompoundTag();
+    writeTrimToNbt(nbt, trim);
+    CustomData created = CustomData.of(nbt);
+    if (CANONICAL_CUSTOM_DATA.size() >= MAX_CANONICAL_CUSTOM_DATA) {
+      return created;
+    }
+    CustomData existing = CANONICAL_CUSTOM_DATA.putIfAbsent(trim, created);
+    return existing != null ? existing : created;
+  }
+
+  /** Whether custom_data holds at most a trim, so it can be replaced wholesale. */
+  @SuppressWarnings("deprecation")
+  private static boolean isTrimOnly(CustomData customData) {
+    // getUnsafe() is safe here: the tag is only read, never mutated
+    int size = customData.getUnsafe().size();
+    return size == 0 || (size == 1 && customData.contains(TRIM_KEY));
+  }
+
   /**
    * Read trim data from a placed shulker box block. Reads from the block entity's components where
    * custom_data was transferred.
@@ -127,7 +165,7 @@ public final class ShulkerTrimStorage {
 
   /** Read trim from NBT compound. */
   @Nullable
-  private static ShulkerTrim readTrimFromNbt(CompoundTag nbt) {
+  static ShulkerTrim readTrimFromNbt(CompoundTag nbt) {
     if (!nbt.contains(TRIM_KEY) || nbt.get(TRIM_KEY).getId() != Tag.TAG_COMPOUND) {
       return null;
     }
@@ -157,12 +195,11 @@ public final class ShulkerTrimStorage {
       return null;
     }
 
-    ShulkerTrim trim = new ShulkerTrim(pattern, material);
-    return trim.isValid() ? trim : null;
+    return TrimRegistry.global().of(pattern, material);
   }
 
   /** Write trim to NBT compound. */
-  private static void writeTrimToNbt(CompoundTag nbt, @Nullable ShulkerTrim trim) {
+  static void writeTrimToNbt(CompoundTag nbt, @Nullable ShulkerTrim trim) {
     if (trim == null) {
       nbt.remove(TRIM_KEY);
       return;
@@ -2,6 +2,7 @@ package com.wlritchi.shulkertrims.bukkit;
 
 import com.wlritchi.shulkertrims.common.ShulkerTrim;
 import io.papermc.paper.event.packet.PlayerChunkLoadEvent;
+import io.papermc.paper.event.packet.PlayerChunkUnloadEvent;
 import io.papermc.paper.event.server.ServerResourcesReloadedEvent;
 import org.bukkit.Chunk;
 import org.bukkit.Material;
@@ -16,6 +17,7 @@ import org.bukkit.event.block.BlockDispenseEvent;
 import org.bukkit.event.block.BlockDropItemEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.inventory.PrepareSmithingEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerRegisterChannelEvent;
 import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.inventory.ItemStack;
@@ -228,6 +230,10 @@ public class ShulkerTrimsListener implements Listener {
           .runTaskLater(
               plugin,
               () -> {
+                if (network.supportsResync(event.getPlayer())) {
+                  // The client reports what it has cached for each chunk instead
+                  return;
+                }
                 network.syncAllToPlayer(event.getPlayer());
                 plugin.getLogger().info("Synced trims to player: " + event.getPlayer().getName());
               },
@@ -251,8 +257,9 @@ public class ShulkerTrimsListener implements Listener {
             plugin,
             () -> {
               for (org.bukkit.entity.Player player : chunk.getWorld().getPlayers()) {
-                // Only sync to players who have our channel registered
-                if (player.getListeningPluginChannels().contains(TrimSyncNetwork.CHANNEL)) {
+                // Only sync to players who have our channel registered and don't resync
+                if (player.getListeningPluginChannels().contains(TrimSyncNetwork.CHANNEL)
+                    && !network.supportsResync(player)) {
                   network.syncChunkToPlayer(player, chunk);
                 }
               }
@@ -267,9 +274,12 @@ public class ShulkerTrimsListener implements Listener {
   @EventHandler
   public void onPlayerChunkLoad(PlayerChunkLoadEvent event) {
     org.bukkit.entity.Player player = event.getPlayer();
+    network.trackChunk(player, event.getChunk().getX(), event.getChunk().getZ());
 
-    // Only sync to players who have our channel registered
-    if (!player.getListeningPluginChannels().contains(TrimSyncNetwork.CHANNEL)) {
+    // Only sync to players who have our channel registered; resyncing clients report the chunk's
+    // hash when they receive it and are answered from TrimSyncNetwork
+    if (!player.getListeningPluginChannels().contains(TrimSyncNetwork.CHANNEL)
+        || network.supportsResync(player)) {
       return;
     }
 
@@ -287,6 +297,17 @@ public class ShulkerTrimsListener implements Listener {
             1L);
   }
 
+  /** Stop answering hash reports for chunks a player no longer has loaded. */
+  @EventHandler
+  public void onPlayerChunkUnload(PlayerChunkUnloadEvent event) {
+    network.untrackChunk(event.getPlayer(), event.getChunk().getX(), event.getChunk().getZ());
+  }
+
+  @EventHandler
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    network.untrackPlayer(event.getPlayer());
+  }
+
   /**
    * When server resources are reloaded (e.g., /minecraft:reload or datapack changes), re-register
    * our recipes. Plugin-registered recipes are lost during resource reloads.
@@ -1,5 +1,13 @@
 package com.wlritchi.shulkertrims.bukkit;
 
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import java.util.List;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import org.bukkit.craftbukkit.CraftServer;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class ShulkerTrimsPlugin extends JavaPlugin {
@@ -10,6 +18,12 @@ public class ShulkerTrimsPlugin extends JavaPlugin {
   public void onEnable() {
     getLogger().info("Shulker Trims enabling...");
 
+    // Index the trims registered on this server
+    RegistryAccess registries = ((CraftServer) getServer()).getServer().registryAccess();
+    TrimRegistry.global()
+        .rebuild(
+            ids(registries, Registries.TRIM_PATTERN), ids(registries, Registries.TRIM_MATERIAL));
+
     // Register smithing recipes
     ShulkerTrimsRecipes.register(this);
 
@@ -36,4 +50,9 @@ public class ShulkerTrimsPlugin extends JavaPlugin {
   public TrimSyncNetwork getTrimSyncNetwork() {
     return trimSyncNetwork;
   }
+
+  private static <T> List<String> ids(
+      RegistryAccess registries, ResourceKey<? extends Registry<? extends T>> key) {
+    return registries.lookupOrThrow(key).keySet().stream().map(ResourceLocation::toString).toList();
+  }
 }
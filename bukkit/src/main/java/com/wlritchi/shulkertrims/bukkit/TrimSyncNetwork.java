@@ -1,42 +1,58 @@
 package com.wlritchi.shulkertrims.bukkit;
 
 import com.wlritchi.shulkertrims.common.ShulkerTrim;
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import com.wlritchi.shulkertrims.common.TrimChunkHash;
+import com.wlritchi.shulkertrims.common.TrimSyncCodec;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.logging.Level;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.block.BlockState;
 import org.bukkit.block.ShulkerBox;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.messaging.PluginMessageListener;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
- * Handles syncing trim data to Fabric clients via plugin messaging.
+ * Handles syncing trim data to Fabric clients via plugin messaging. Every message is encoded with
+ * {@link TrimSyncCodec}, which the Fabric client decodes with too.
  *
- * <p>Packet format (single trim sync): - int: block X position - int: block Y position - int: block
- * Z position - boolean: has trim - if has trim: - UTF string: pattern (e.g., "minecraft:sentry") -
- * UTF string: material (e.g., "minecraft:redstone")
+ * <p>Clients that keep a trim cache also listen on {@link #CHUNK_CHANNEL}. Instead of being sent
+ * every chunk's trims as it arrives, such a client reports a {@link TrimChunkHash} of what it has
+ * cached for the chunk on {@link #CHUNK_HASH_CHANNEL}, and is sent the chunk's full trim list only
+ * if the hash doesn't match the server's. Each chunk sent to a player is answered at most once, so
+ * a client can't make the server scan chunks it wasn't sent, or the same chunk over and over.
  */
 public class TrimSyncNetwork implements PluginMessageListener {
 
   public static final String CHANNEL = "shulker_trims:sync";
+  public static final String CHUNK_CHANNEL = "shulker_trims:chunk";
+  public static final String CHUNK_HASH_CHANNEL = "shulker_trims:chunk_hash";
 
   private final Plugin plugin;
 
+  /** Tracks the last known trim state for each shulker box location. */
+  private final KnownTrims lastKnownTrims = new KnownTrims();
+
   /**
-   * Tracks the last known trim state for each shulker box location. Used to detect changes when
-   * block entity data is modified externally (e.g., via commands). Key format: "world:x:y:z"
+   * Chunks each player has been sent and not yet reported a hash for, as {@link Chunk#getChunkKey}
+   * keys. Added when a chunk is sent and removed when its hash is answered or the player unloads
+   * it.
    */
-  private final Map<String, ShulkerTrim> lastKnownTrims = new ConcurrentHashMap<>();
+  private final Map<UUID, Set<Long>> unreportedChunks = new ConcurrentHashMap<>();
 
   private int changeDetectionTaskId = -1;
 
@@ -47,6 +63,8 @@ public class TrimSyncNetwork implements PluginMessageListener {
   public void register() {
     Bukkit.getMessenger().registerOutgoingPluginChannel(plugin, CHANNEL);
     Bukkit.getMessenger().registerIncomingPluginChannel(plugin, CHANNEL, this);
+    Bukkit.getMessenger().registerOutgoingPluginChannel(plugin, CHUNK_CHANNEL);
+    Bukkit.getMessenger().registerIncomingPluginChannel(plugin, CHUNK_HASH_CHANNEL, this);
     plugin.getLogger().info("Registered trim sync channel: " + CHANNEL);
 
     // Start periodic change detection task (runs every second)
@@ -57,6 +75,8 @@ public class TrimSyncNetwork implements PluginMessageListener {
   public void unregister() {
     Bukkit.getMessenger().unregisterOutgoingPluginChannel(plugin, CHANNEL);
     Bukkit.getMessenger().unregisterIncomingPluginChannel(plugin, CHANNEL);
+    Bukkit.getMessenger().unregisterOutgoingPluginChannel(plugin, CHUNK_CHANNEL);
+    Bukkit.getMessenger().unregisterIncomingPluginChannel(plugin, CHUNK_HASH_CHANNEL);
 
     if (changeDetectionTaskId != -1) {
       Bukkit.getScheduler().cancelTask(changeDetectionTaskId);
@@ -67,13 +87,94 @@ public class TrimSyncNetwork implements PluginMessageListener {
   @Override
   public void onPluginMessageReceived(
       @NotNull String channel, @NotNull Player player, byte @NotNull [] message) {
-    // We don't expect any messages from clients, but this is required by the interface
+    if (!CHUNK_HASH_CHANNEL.equals(channel)) {
+      return;
+    }
+
+    ChunkHash request;
+    try {
+      request = TrimSyncCodec.readChunkHash(ByteBuffer.wrap(message), ChunkHash::new);
+    } catch (BufferUnderflowException e) {
+      plugin.getLogger().fine("Ignoring malformed chunk hash from " + player.getName());
+      return;
+    }
+    resyncChunk(player, request.chunkX(), request.chunkZ(), request.hash());
+  }
+
+  private record ChunkHash(int chunkX, int chunkZ, long hash) {}
+
+  /** Record that a chunk was sent to a player, allowing one hash report for it. */
+  public void trackChunk(Player player, int chunkX, int chunkZ) {
+    unreportedChunks
+        .computeIfAbsent(player.getUniqueId(), id -> ConcurrentHashMap.newKeySet())
+        .add(Chunk.getChunkKey(chunkX, chunkZ));
+  }
+
+  /** Record that a player unloaded a chunk, so reports for it are ignored. */
+  public void untrackChunk(Player player, int chunkX, int chunkZ) {
+    Set<Long> chunks = unreportedChunks.get(player.getUniqueId());
+    if (chunks != null) {
+      chunks.remove(Chunk.getChunkKey(chunkX, chunkZ));
+    }
+  }
+
+  /** Forget every chunk tracked for a player. Called when they leave. */
+  public void untrackPlayer(Player player) {
+    unreportedChunks.remove(player.getUniqueId());
+  }
+
+  /**
+   * Whether a player's client reports chunk hashes, and so should not be sent chunks' trims
+   * unprompted.
+   */
+  public boolean supportsResync(Player player) {
+    return player.getListeningPluginChannels().contains(CHUNK_CHANNEL);
+  }
+
+  /**
+   * Answer a client's chunk hash: send the chunk's trims if they differ from what the client has
+   * cached. Reports for chunks the player wasn't sent, or has already reported since, are ignored.
+   */
+  private void resyncChunk(Player player, int chunkX, int chunkZ, long clientHash) {
+    Set<Long> chunks = unreportedChunks.get(player.getUniqueId());
+    if (chunks == null || !chunks.remove(Chunk.getChunkKey(chunkX, chunkZ))) {
+      return;
+    }
+    World world = player.getWorld();
+    if (!world.isChunkLoaded(chunkX, chunkZ)) {
+      return;
+    }
+
+    Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+    List<Location> locations = new ArrayList<>();
+    List<ShulkerTrim> trims = new ArrayList<>();
+    TrimChunkHash hash = new TrimChunkHash();
+    for (BlockState state : chunk.getTileEntities()) {
+      if (state instanceof ShulkerBox shulkerBox) {
+        ShulkerTrim trim = ShulkerTrimStorage.readTrimFromBlock(shulkerBox);
+        if (trim != null) {
+          Location loc = state.getLocation();
+          locations.add(loc);
+          trims.add(trim);
+          hash.add(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(), trim);
+          lastKnownTrims.put(
+              loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(), trim);
+        }
+      }
+    }
+
+    if (hash.value() == clientHash) {
+      return;
+    }
+    if (supportsResync(player)) {
+      player.sendPluginMessage(
+          plugin, CHUNK_CHANNEL, createChunkPacket(chunkX, chunkZ, locations, trims));
+    }
   }
 
   /** Send trim data for a specific block to all nearby players. */
   public void sendTrimSync(Location location, ShulkerTrim trim) {
     byte[] data = createTrimPacket(location, trim);
-    if (data == null) return;
 
     // Send to all players in the same world who can see this block
     for (Player player : location.getWorld().getPlayers()) {
@@ -85,10 +186,7 @@ public class TrimSyncNetwork implements PluginMessageListener {
 
   /** Send trim data for a specific block to a specific player. */
   public void sendTrimSync(Player player, Location location, ShulkerTrim trim) {
-    byte[] data = createTrimPacket(location, trim);
-    if (data != null) {
-      sendToPlayer(player, data);
-    }
+    sendToPlayer(player, createTrimPacket(location, trim));
   }
 
   /**
@@ -103,7 +201,8 @@ public class TrimSyncNetwork implements PluginMessageListener {
         if (trim != null) {
           sendTrimSync(player, loc, trim);
           // Track this as the last known state
-          lastKnownTrims.put(getLocationKey(loc), trim);
+          lastKnownTrims.put(
+              loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(), trim);
         }
       }
     }
@@ -139,27 +238,29 @@ public class TrimSyncNetwork implements PluginMessageListener {
     int chunkZ = chunk.getZ();
 
     // Track which locations in this chunk still have shulker boxes
-    var existingShulkerLocations = new java.util.HashSet<String>();
+    IntSet existingShulkerLocations = new IntOpenHashSet();
 
     for (BlockState state : chunk.getTileEntities()) {
       if (state instanceof ShulkerBox shulkerBox) {
         Location loc = state.getLocation();
-        String key = getLocationKey(loc);
-        existingShulkerLocations.add(key);
+        int x = loc.getBlockX();
+        int y = loc.getBlockY();
+        int z = loc.getBlockZ();
+        existingShulkerLocations.add(KnownTrims.localPos(x, y, z));
 
         ShulkerTrim currentTrim = ShulkerTrimStorage.readTrimFromBlock(shulkerBox);
-        ShulkerTrim lastTrim = lastKnownTrims.get(key);
+        ShulkerTrim lastTrim = lastKnownTrims.get(worldName, x, y, z);
 
         // Check if trim has changed
         if (!Objects.equals(currentTrim, lastTrim)) {
           // Trim changed - broadcast update to all nearby players
           if (currentTrim != null) {
             sendTrimSync(loc, currentTrim);
-            lastKnownTrims.put(key, currentTrim);
+            lastKnownTrims.put(worldName, x, y, z, currentTrim);
           } else {
             // Trim removed - broadcast null trim packet
             sendTrimRemoval(loc);
-            lastKnownTrims.remove(key);
+            lastKnownTrims.remove(worldName, x, y, z);
           }
         }
       }
@@ -167,53 +268,17 @@ public class TrimSyncNetwork implements PluginMessageListener {
 
     // Clean up stale entries: remove lastKnownTrims entries for shulkers that no longer exist
     // This handles cases like /setblock air, explosions, or pistons removing shulkers
-    lastKnownTrims
-        .keySet()
-        .removeIf(
-            key -> {
-              // Only check keys in this chunk's world
-              if (!key.startsWith(worldName + ":")) {
-                return false;
-              }
-
-              // Parse coordinates from key (format: "world:x:y:z")
-              String[] parts = key.split(":");
-              if (parts.length != 4) {
-                return false;
-              }
-
-              try {
-                int x = Integer.parseInt(parts[1]);
-                int z = Integer.parseInt(parts[3]);
-
-                // Check if this location is in the current chunk
-                int locChunkX = x >> 4;
-                int locChunkZ = z >> 4;
-
-                if (locChunkX == chunkX && locChunkZ == chunkZ) {
-                  // This key is in our chunk - remove it if no shulker exists there anymore
-                  return !existingShulkerLocations.contains(key);
-                }
-              } catch (NumberFormatException e) {
-                // Invalid key format - leave it alone
-              }
-
-              return false;
-            });
+    lastKnownTrims.removeStale(worldName, chunkX, chunkZ, existingShulkerLocations);
   }
 
   /** Send a "trim removed" packet for a specific block. */
   public void sendTrimRemoval(Player player, Location location) {
-    byte[] data = createTrimPacket(location, null);
-    if (data != null) {
-      sendToPlayer(player, data);
-    }
+    sendToPlayer(player, createTrimPacket(location, null));
   }
 
   /** Send a "trim removed" packet to all nearby players. */
   public void sendTrimRemoval(Location location) {
     byte[] data = createTrimPacket(location, null);
-    if (data == null) return;
 
     for (Player player : location.getWorld().getPlayers()) {
       if (player.getLocation().distance(location) < 256) {
@@ -222,43 +287,27 @@ public class TrimSyncNetwork implements PluginMessageListener {
     }
   }
 
-  private String getLocationKey(Location loc) {
-    return loc.getWorld().getName()
-        + ":"
-        + loc.getBlockX()
-        + ":"
-        + loc.getBlockY()
-        + ":"
-        + loc.getBlockZ();
+  byte[] createTrimPacket(Location location, @Nullable ShulkerTrim trim) {
+    ByteBuffer out = ByteBuffer.allocate(TrimSyncCodec.trimSyncSize(trim));
+    TrimSyncCodec.writeTrimSync(
+        out, location.getBlockX(), location.getBlockY(), location.getBlockZ(), trim);
+    return out.array();
   }
 
-  private byte[] createTrimPacket(Location location, ShulkerTrim trim) {
-    try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        DataOutputStream dos = new DataOutputStream(baos)) {
-
-      // Write position
-      dos.writeInt(location.getBlockX());
-      dos.writeInt(location.getBlockY());
-      dos.writeInt(location.getBlockZ());
-
-      // Write trim data
-      dos.writeBoolean(trim != null);
-      if (trim != null) {
-        writeUTF(dos, trim.pattern());
-        writeUTF(dos, trim.material());
-      }
-
-      return baos.toByteArray();
-    } catch (IOException e) {
-      plugin.getLogger().log(Level.WARNING, "Failed to create trim sync packet", e);
-      return null;
+  byte[] createChunkPacket(
+      int chunkX, int chunkZ, List<Location> locations, List<ShulkerTrim> trims) {
+    int size = TrimSyncCodec.CHUNK_HEADER_BYTES;
+    for (ShulkerTrim trim : trims) {
+      size += TrimSyncCodec.chunkEntrySize(trim);
     }
-  }
-
-  private void writeUTF(DataOutputStream dos, String str) throws IOException {
-    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
-    dos.writeShort(bytes.length);
-    dos.write(bytes);
+    ByteBuffer out = ByteBuffer.allocate(size);
+    TrimSyncCodec.writeChunkHeader(out, chunkX, chunkZ, locations.size());
+    for (int i = 0; i < locations.size(); i++) {
+      Location location = locations.get(i);
+      TrimSyncCodec.writeChunkEntry(
+          out, location.getBlockX(), location.getBlockY(), location.getBlockZ(), trims.get(i));
+    }
+    return out.array();
   }
 
   private void sendToPlayer(Player player, byte[] data) {
@@ -0,0 +1,51 @@
+package com.wlritchi.shulkertrims.common;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Construction and identifier validation of {@link ShulkerTrim}, and chunk hashing. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShulkerTrimBenchmark {
+
+  // Non-constant strings, so the JIT cannot fold validation away
+  private String pattern = new String("minecraft:wayfinder");
+  private String material = new String("minecraft:netherite");
+  private ShulkerTrim trim = new ShulkerTrim(pattern, material);
+
+  @Benchmark
+  public ShulkerTrim construct() {
+    return new ShulkerTrim(pattern, material);
+  }
+
+  @Benchmark
+  public boolean validate() {
+    return trim.isValid();
+  }
+
+  @Benchmark
+  public boolean constructAndValidate() {
+    return new ShulkerTrim(pattern, material).isValid();
+  }
+
+  @Benchmark
+  public long chunkHash() {
+    TrimChunkHash hash = new TrimChunkHash();
+    for (int i = 0; i < 16; i++) {
+      hash.add(i, 64, -i, trim);
+    }
+    return hash.value();
+  }
+}
@@ -0,0 +1,61 @@
+package com.wlritchi.shulkertrims.common;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Color lookups in {@link TrimMaterials}, by identifier and by registry index. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrimMaterialsBenchmark {
+
+  private final float[] dest = new float[3];
+  private String material;
+  private int materialId;
+
+  @Setup
+  public void setup() {
+    TrimRegistry.global().rebuild(List.of(), TrimMaterials.COLORS.keySet());
+    TrimMaterials.rebuild(TrimMaterials.COLORS);
+    material = new String("minecraft:amethyst");
+    materialId = TrimRegistry.global().materialId(material);
+  }
+
+  @Benchmark
+  public int color() {
+    return TrimMaterials.getColor(material);
+  }
+
+  @Benchmark
+  public int colorById() {
+    return TrimMaterials.getColorById(materialId);
+  }
+
+  @Benchmark
+  public float[] components() {
+    return TrimMaterials.getColorComponents(material);
+  }
+
+  @Benchmark
+  public float[] componentsInto() {
+    return TrimMaterials.getColorComponents(material, dest);
+  }
+
+  @Benchmark
+  public float[] componentsById() {
+    return TrimMaterials.getColorComponentsById(materialId, dest);
+  }
+}
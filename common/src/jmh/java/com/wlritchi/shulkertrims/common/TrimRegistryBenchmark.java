@@ -0,0 +1,53 @@
+package com.wlritchi.shulkertrims.common;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Interning lookups in {@link TrimRegistry}. Every trim is registered and already interned, as it
+ * is for all but the first read of each pair in game.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrimRegistryBenchmark {
+
+  private TrimRegistry registry;
+  private String pattern;
+  private String material;
+  private ShulkerTrim equalTrim;
+
+  @Setup
+  public void setup() {
+    registry = TrimRegistry.global();
+    registry.rebuild(List.of("minecraft:wayfinder"), List.of("minecraft:netherite"));
+    registry.of("minecraft:wayfinder", "minecraft:netherite");
+    // Distinct instances with equal contents, as decoded strings would be
+    pattern = new String("minecraft:wayfinder");
+    material = new String("minecraft:netherite");
+    equalTrim = new ShulkerTrim(pattern, material);
+  }
+
+  @Benchmark
+  public ShulkerTrim of() {
+    return registry.of(pattern, material);
+  }
+
+  @Benchmark
+  public ShulkerTrim intern() {
+    return registry.intern(equalTrim);
+  }
+}
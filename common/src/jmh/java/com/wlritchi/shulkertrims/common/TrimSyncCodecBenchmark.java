@@ -0,0 +1,48 @@
+package com.wlritchi.shulkertrims.common;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Encoding and decoding of single box sync messages with {@link TrimSyncCodec}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrimSyncCodecBenchmark {
+
+  private final ByteBuffer out = ByteBuffer.allocate(256);
+  private final ByteBuffer encoded = ByteBuffer.allocate(256);
+  private ShulkerTrim trim;
+
+  @Setup
+  public void setup() {
+    trim = TrimRegistry.global().of("minecraft:wayfinder", "minecraft:netherite");
+    TrimSyncCodec.writeTrimSync(encoded, 123, 64, -456, trim);
+    encoded.flip();
+  }
+
+  @Benchmark
+  public ByteBuffer encode() {
+    out.clear();
+    TrimSyncCodec.writeTrimSync(out, 123, 64, -456, trim);
+    return out;
+  }
+
+  @Benchmark
+  public ShulkerTrim decode() {
+    encoded.rewind();
+    return TrimSyncCodec.readTrimSync(encoded, (x, y, z, decoded) -> decoded);
+  }
+}
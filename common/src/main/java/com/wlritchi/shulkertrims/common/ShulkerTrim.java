@@ -33,7 +33,7 @@ public record ShulkerTrim(@NotNull String pattern, @NotNull String material) {
   }
 
   /** Simple validation for Minecraft resource identifiers (namespace:path format). */
-  private static boolean isValidIdentifier(String id) {
+  static boolean isValidIdentifier(String id) {
     if (id == null || id.isEmpty()) {
       return false;
     }
@@ -0,0 +1,39 @@
+package com.wlritchi.shulkertrims.common;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Order-independent hash of the trims in one chunk, used by clients to tell the server what they
+ * already have cached so it only resends chunks that differ.
+ *
+ * <p>Both sides must produce the same value from the same trims on any JVM, so it is built only
+ * from block coordinates and {@link String#hashCode()}, whose result is specified. A chunk with no
+ * trims hashes to 0.
+ */
+public final class TrimChunkHash {
+  private long hash;
+
+  /** Add one trimmed shulker box to the hash. Boxes may be added in any order. */
+  public TrimChunkHash add(int x, int y, int z, @NotNull ShulkerTrim trim) {
+    long h = x;
+    h = h * 31 + y;
+    h = h * 31 + z;
+    h = h * 31 + trim.pattern().hashCode();
+    h = h * 31 + trim.material().hashCode();
+    // Summing mixed entries keeps the result independent of iteration order
+    hash += mix(h);
+    return this;
+  }
+
+  /** The hash of every box added so far. */
+  public long value() {
+    return hash;
+  }
+
+  /** SplitMix64 finalizer, so nearby positions and similar strings spread across all bits. */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -1,12 +1,23 @@
 package com.wlritchi.shulkertrims.common;
 
+import java.util.Arrays;
 import java.util.Map;
 
-/** Trim material color palette, matching vanilla armor trim colors. */
+/**
+ * Trim material color palette, matching vanilla armor trim colors.
+ *
+ * <p>Starts out with the vanilla materials in {@link #COLORS} and is replaced by {@link #rebuild}
+ * from the game's trim material registry, so datapack materials get their own color rather than the
+ * gray fallback. Float components are computed once per rebuild, and every lookup other than {@link
+ * #getColorComponents(String)} is allocation-free.
+ */
 public final class TrimMaterials {
   private TrimMaterials() {}
 
-  /** Material colors as RGB integers. These match vanilla armor trim material palettes. */
+  /** Color for materials the palette does not know. */
+  public static final int DEFAULT_COLOR = 0x808080;
+
+  /** Vanilla material colors as RGB integers, used until the palette is built from a registry. */
   public static final Map<String, Integer> COLORS =
       Map.ofEntries(
           Map.entry("minecraft:quartz", 0xE3D4C4),
@@ -18,18 +29,112 @@ public final class TrimMaterials {
           Map.entry("minecraft:emerald", 0x11A036),
           Map.entry("minecraft:diamond", 0x6EECD2),
           Map.entry("minecraft:lapis", 0x416E97),
-          Map.entry("minecraft:amethyst", 0x9A5CC6));
+          Map.entry("minecraft:amethyst", 0x9A5CC6),
+          Map.entry("minecraft:resin", 0xFC7812));
+
+  /** Marks a by-index slot whose material had no index when the palette was built. */
+  private static final int UNRESOLVED = -1;
+
+  /**
+   * One immutable build of the palette. Colors are also laid out by {@link TrimRegistry} material
+   * index, with three float components per index, for callers that hold a material index.
+   */
+  private record Palette(Map<String, Integer> colors, int[] colorsById, float[] componentsById) {
+    static Palette of(Map<String, Integer> colors) {
+      int[] colorsById = new int[TrimRegistry.MAX_COMPONENTS];
+      Arrays.fill(colorsById, UNRESOLVED);
+      for (Map.Entry<String, Integer> entry : colors.entrySet()) {
+        int id = TrimRegistry.global().materialId(entry.getKey());
+        if (id != TrimRegistry.NO_ID) {
+          colorsById[id] = entry.getValue();
+        }
+      }
+
+      float[] componentsById = new float[colorsById.length * 3];
+      for (int id = 0; id < colorsById.length; id++) {
+        int color = colorsById[id];
+        unpack(color == UNRESOLVED ? DEFAULT_COLOR : color, componentsById, id * 3);
+      }
+      return new Palette(Map.copyOf(colors), colorsById, componentsById);
+    }
+  }
+
+  private static volatile Palette palette = Palette.of(COLORS);
+
+  /**
+   * Replace the palette with the colors from the game's trim material registry. Call after {@link
+   * TrimRegistry#rebuild}, so the by-index table follows the new material indices.
+   *
+   * @param colors RGB color of every registered material, by material identifier
+   */
+  public static void rebuild(Map<String, Integer> colors) {
+    palette = Palette.of(colors);
+  }
 
   /** Get the color for a material, or a default gray if unknown. */
   public static int getColor(String material) {
-    return COLORS.getOrDefault(material, 0x808080);
+    return palette.colors().getOrDefault(material, DEFAULT_COLOR);
   }
 
-  /** Get color components as floats (0.0-1.0) for rendering. */
+  /**
+   * Get the color for a material by its {@link TrimRegistry} index, as returned by {@link
+   * TrimRegistry#materialId}.
+   *
+   * @return The color, or a default gray if the material is unknown
+   */
+  public static int getColorById(int materialId) {
+    Palette current = palette;
+    if (materialId < 0 || materialId >= current.colorsById().length) {
+      return DEFAULT_COLOR;
+    }
+    int color = current.colorsById()[materialId];
+    if (color != UNRESOLVED) {
+      return color;
+    }
+    // Indexed by a registry rebuild after the palette was built; fall back to the identifier
+    String material = TrimRegistry.global().material(materialId);
+    return material != null
+        ? current.colors().getOrDefault(material, DEFAULT_COLOR)
+        : DEFAULT_COLOR;
+  }
+
+  /** Get color components as floats (0.0-1.0) for rendering, in a new array. */
   public static float[] getColorComponents(String material) {
-    int color = getColor(material);
-    return new float[] {
-      ((color >> 16) & 0xFF) / 255.0f, ((color >> 8) & 0xFF) / 255.0f, (color & 0xFF) / 255.0f
-    };
+    return getColorComponents(material, new float[3]);
+  }
+
+  /**
+   * Write color components as floats (0.0-1.0) into a caller-owned array.
+   *
+   * @param dest Array of at least three elements, receiving red, green and blue
+   * @return {@code dest}
+   */
+  public static float[] getColorComponents(String material, float[] dest) {
+    unpack(getColor(material), dest, 0);
+    return dest;
+  }
+
+  /**
+   * Write the precomputed color components for a material index into a caller-owned array.
+   *
+   * @param dest Array of at least three elements, receiving red, green and blue
+   * @return {@code dest}
+   */
+  public static float[] getColorComponentsById(int materialId, float[] dest) {
+    Palette current = palette;
+    if (materialId >= 0
+        && materialId < current.colorsById().length
+        && current.colorsById()[materialId] != UNRESOLVED) {
+      System.arraycopy(current.componentsById(), materialId * 3, dest, 0, 3);
+    } else {
+      unpack(getColorById(materialId), dest, 0);
+    }
+    return dest;
+  }
+
+  private static void unpack(int color, float[] dest, int offset) {
+    dest[offset] = ((color >> 16) & 0xFF) / 255.0f;
+    dest[offset + 1] = ((color >> 8) & 0xFF) / 255.0f;
+    dest[offset + 2] = (color & 0xFF) / 255.0f;
   }
 }
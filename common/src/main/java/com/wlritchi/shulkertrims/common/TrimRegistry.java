@@ -0,0 +1,280 @@
+package com.wlritchi.shulkertrims.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Canonical {@link ShulkerTrim} instances.
+ *
+ * <p>Every trim read from NBT, the network or disk goes through {@link #of}, so equal trims share
+ * one instance and identifiers are validated once, when first seen, rather than on every read.
+ * Looking up a known trim by its two strings does not allocate.
+ *
+ * <p>Patterns and materials in the game's trim registries each get an index below {@link
+ * #MAX_COMPONENTS}, assigned by {@link #rebuild} in sorted order. Indices are local to this process
+ * and never sent anywhere; they only let registered trims be kept in arrays, and let {@link
+ * TrimMaterials} lay out colors by material. Each registered pattern and material pair also gets a
+ * compact {@link #pairId} below {@link #pairCount}, for tracking trims in primitive collections;
+ * like the indices, pair IDs change when the registries are rebuilt. Identifiers outside the
+ * registries, such as those on items from a removed datapack, never get an index, and at most
+ * {@link #MAX_UNINDEXED} such trims are interned. Beyond that, {@link #of} still returns valid
+ * trims, just not canonical instances.
+ *
+ * <p>Safe to use from any thread.
+ */
+public final class TrimRegistry {
+
+  /** Returned by {@link #materialId} and {@link #pairId} for identifiers without an index. */
+  public static final int NO_ID = -1;
+
+  /** Maximum number of patterns, and separately of materials, that get an index. */
+  public static final int MAX_COMPONENTS = 256;
+
+  /** Maximum number of interned trims whose pattern or material has no index. */
+  public static final int MAX_UNINDEXED = 1024;
+
+  private static final TrimRegistry GLOBAL = new TrimRegistry();
+
+  /** Index assignments. Replaced wholesale by {@link #rebuild}; only trims are added in place. */
+  private static final class Indices {
+    final Map<String, Integer> patternIds = new ConcurrentHashMap<>();
+    final Map<String, Integer> materialIds = new ConcurrentHashMap<>();
+    final String[] patterns = new String[MAX_COMPONENTS];
+    final String[] materials = new String[MAX_COMPONENTS];
+
+    /** Canonical trims by pattern index, then material index. Rows are allocated on first use. */
+    final ShulkerTrim[][] trims = new ShulkerTrim[MAX_COMPONENTS][];
+
+    int patternCount;
+    int materialCount;
+
+    /** Number of non-null entries in {@link #trims}. */
+    int trimCount;
+
+    @Nullable
+    ShulkerTrim get(int patternId, int materialId) {
+      ShulkerTrim[] row = trims[patternId];
+      return row != null ? row[materialId] : null;
+    }
+
+    @Nullable
+    ShulkerTrim get(ShulkerTrim trim) {
+      Integer patternId = patternIds.get(trim.pattern());
+      Integer materialId = materialIds.get(trim.material());
+      return patternId != null && materialId != null ? get(patternId, materialId) : null;
+    }
+
+    /** Store a trim in its slot, returning false if its pattern or material has no index. */
+    boolean put(ShulkerTrim trim) {
+      Integer patternId = patternIds.get(trim.pattern());
+      Integer materialId = materialIds.get(trim.material());
+      if (patternId == null || materialId == null) {
+        return false;
+      }
+      ShulkerTrim[] row = trims[patternId];
+      if (row == null) {
+        row = new ShulkerTrim[MAX_COMPONENTS];
+        trims[patternId] = row;
+      }
+      if (row[materialId] == null) {
+        trimCount++;
+      }
+      row[materialId] = trim;
+      return true;
+    }
+  }
+
+  private volatile Indices indices = new Indices();
+
+  /**
+   * Canonical instances of valid trims whose pattern or material has no index, up to {@link
+   * #MAX_UNINDEXED}. Written under the lock.
+   */
+  private final Map<ShulkerTrim, ShulkerTrim> unindexed = new ConcurrentHashMap<>();
+
+  /** Use {@link #global()}; separate instances are for tests. */
+  TrimRegistry() {}
+
+  /** The registry shared by the whole game or server. */
+  public static TrimRegistry global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Get the canonical trim for a pattern and material, interning it if this is the first time the
+   * pair is seen.
+   *
+   * @return The canonical trim, or null if either identifier is invalid
+   */
+  @Nullable
+  public ShulkerTrim of(@NotNull String pattern, @NotNull String material) {
+    Indices current = indices;
+    Integer patternId = current.patternIds.get(pattern);
+    Integer materialId = current.materialIds.get(material);
+    if (patternId != null && materialId != null) {
+      ShulkerTrim trim = current.get(patternId, materialId);
+      // Indexed identifiers were validated by rebuild
+      return trim != null ? trim : add(new ShulkerTrim(pattern, material));
+    }
+    // Slow path: a pair whose pattern or material has no index
+    ShulkerTrim trim = new ShulkerTrim(pattern, material);
+    ShulkerTrim existing = unindexed.get(trim);
+    if (existing != null) {
+      return existing;
+    }
+    return trim.isValid() ? add(trim) : null;
+  }
+
+  /**
+   * Get the canonical instance equal to a trim, interning the trim itself if none exists yet.
+   * Invalid trims are never interned and are returned as they are.
+   */
+  @NotNull
+  public ShulkerTrim intern(@NotNull ShulkerTrim trim) {
+    ShulkerTrim existing = indices.get(trim);
+    if (existing == null) {
+      existing = unindexed.get(trim);
+    }
+    if (existing != null) {
+      return existing;
+    }
+    return trim.isValid() ? add(trim) : trim;
+  }
+
+  /**
+   * Get the index of a material.
+   *
+   * @return The index, or {@link #NO_ID} if the material has none
+   */
+  public int materialId(@NotNull String material) {
+    Integer id = indices.materialIds.get(material);
+    return id != null ? id : NO_ID;
+  }
+
+  /**
+   * Get the material with an index.
+   *
+   * @return The material identifier, or null if no material has the index
+   */
+  @Nullable
+  public String material(int materialId) {
+    return materialId >= 0 && materialId < MAX_COMPONENTS ? indices.materials[materialId] : null;
+  }
+
+  /**
+   * Get the compact ID of a trim's pattern and material pair, from {@code patternIndex *
+   * materialCount + materialIndex}.
+   *
+   * @return The ID, below {@link #pairCount}, or {@link #NO_ID} if the pattern or material has no
+   *     index
+   */
+  public int pairId(@NotNull ShulkerTrim trim) {
+    Indices current = indices;
+    Integer patternId = current.patternIds.get(trim.pattern());
+    Integer materialId = current.materialIds.get(trim.material());
+    if (patternId == null || materialId == null) {
+      return NO_ID;
+    }
+    return patternId * current.materialCount + materialId;
+  }
+
+  /**
+   * Get the canonical trim with a pair ID from {@link #pairId}.
+   *
+   * @return The trim, or null if no pair has the ID
+   */
+  @Nullable
+  public ShulkerTrim byPairId(int pairId) {
+    Indices current = indices;
+    if (pairId < 0 || pairId >= current.patternCount * current.materialCount) {
+      return null;
+    }
+    int patternId = pairId / current.materialCount;
+    int materialId = pairId % current.materialCount;
+    ShulkerTrim trim = current.get(patternId, materialId);
+    return trim != null
+        ? trim
+        : add(new ShulkerTrim(current.patterns[patternId], current.materials[materialId]));
+  }
+
+  /** Number of pair IDs: registered patterns times registered materials, at most 65,536. */
+  public int pairCount() {
+    Indices current = indices;
+    return current.patternCount * current.materialCount;
+  }
+
+  /**
+   * Reassign indices from the game's trim pattern and material registries. Called when the server
+   * starts or the client joins a world. Canonical instances are kept, moving between indexed and
+   * unindexed storage as their identifiers join or leave the registries.
+   *
+   * @param patterns Identifiers of every registered trim pattern
+   * @param materials Identifiers of every registered trim material
+   */
+  public synchronized void rebuild(Collection<String> patterns, Collection<String> materials) {
+    Indices previous = indices;
+    Indices rebuilt = new Indices();
+    for (String pattern : new TreeSet<>(patterns)) {
+      if (ShulkerTrim.isValidIdentifier(pattern) && rebuilt.patternCount < MAX_COMPONENTS) {
+        rebuilt.patterns[rebuilt.patternCount] = pattern;
+        rebuilt.patternIds.put(pattern, rebuilt.patternCount++);
+      }
+    }
+    for (String material : new TreeSet<>(materials)) {
+      if (ShulkerTrim.isValidIdentifier(material) && rebuilt.materialCount < MAX_COMPONENTS) {
+        rebuilt.materials[rebuilt.materialCount] = material;
+        rebuilt.materialIds.put(material, rebuilt.materialCount++);
+      }
+    }
+
+    List<ShulkerTrim> existing = new ArrayList<>(previous.trimCount + unindexed.size());
+    for (ShulkerTrim[] row : previous.trims) {
+      if (row != null) {
+        for (ShulkerTrim trim : row) {
+          if (trim != null) {
+            existing.add(trim);
+          }
+        }
+      }
+    }
+    existing.addAll(unindexed.values());
+
+    unindexed.clear();
+    for (ShulkerTrim trim : existing) {
+      if (!rebuilt.put(trim) && unindexed.size() < MAX_UNINDEXED) {
+        unindexed.put(trim, trim);
+      }
+    }
+    indices = rebuilt;
+  }
+
+  /** Number of canonical trims, indexed or not. */
+  public int size() {
+    return indices.trimCount + unindexed.size();
+  }
+
+  private synchronized ShulkerTrim add(ShulkerTrim trim) {
+    Indices current = indices;
+    ShulkerTrim existing = current.get(trim);
+    if (existing != null) {
+      return existing;
+    }
+    if (current.put(trim)) {
+      return trim;
+    }
+    existing = unindexed.get(trim);
+    if (existing != null) {
+      return existing;
+    }
+    if (unindexed.size() < MAX_UNINDEXED) {
+      unindexed.put(trim, trim);
+    }
+    return trim;
+  }
+}
@@ -0,0 +1,264 @@
+package com.wlritchi.shulkertrims.common;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Wire format of the trim sync messages between Paper servers and Fabric clients. Both sides encode
+ * and decode through here, straight into and out of a {@link ByteBuffer}, so the format is only
+ * defined once. All values are big-endian.
+ *
+ * <ul>
+ *   <li>Single box: int x, int y, int z, boolean has trim, then if it has one, pattern and material
+ *   <li>Chunk: int chunk X, int chunk Z, int count, then count times int x, int y, int z, pattern
+ *       and material
+ *   <li>Chunk hash: int chunk X, int chunk Z, long {@link TrimChunkHash hash}
+ * </ul>
+ *
+ * <p>Identifiers are an unsigned short byte length followed by UTF-8 bytes. Valid identifiers are
+ * ASCII, so they are written char by char rather than encoded into a temporary array, and decoded
+ * ones are looked up in a small cache of recent identifiers, so reading a known trim allocates
+ * nothing beyond the message itself.
+ */
+public final class TrimSyncCodec {
+  private TrimSyncCodec() {}
+
+  /** Size of a chunk message's header. */
+  public static final int CHUNK_HEADER_BYTES = 12;
+
+  /** Size of a chunk hash message. */
+  public static final int CHUNK_HASH_BYTES = 16;
+
+  /** Smallest possible chunk entry: a position and two empty identifiers. */
+  private static final int MIN_CHUNK_ENTRY_BYTES = 16;
+
+  private static final int MAX_IDENTIFIER_BYTES = 0xFFFF;
+
+  /** Number of recently decoded identifiers remembered. Must be a power of two. */
+  private static final int IDENTIFIER_CACHE_SIZE = 1024;
+
+  /**
+   * Recently decoded identifiers, by hash of their bytes. Not synchronized: a slot is only ever
+   * replaced by another complete string, and every hit is checked against the bytes.
+   */
+  private static final String[] IDENTIFIERS = new String[IDENTIFIER_CACHE_SIZE];
+
+  /** Creates a single box message's value from its decoded fields. */
+  @FunctionalInterface
+  public interface TrimSyncFactory<T> {
+    T create(int x, int y, int z, @Nullable ShulkerTrim trim);
+  }
+
+  /** Collects a chunk message's decoded entries into a value of the caller's choosing. */
+  public interface ChunkTrimsReader<T> {
+    /** Create the value for a chunk, before any of its entries are read. */
+    T create(int chunkX, int chunkZ, int count);
+
+    /** Add one entry. Entries with invalid identifiers are skipped and never passed here. */
+    void add(T chunk, int x, int y, int z, @NotNull ShulkerTrim trim);
+  }
+
+  /** Creates a chunk hash message's value from its decoded fields. */
+  @FunctionalInterface
+  public interface ChunkHashFactory<T> {
+    T create(int chunkX, int chunkZ, long hash);
+  }
+
+  /** Encoded size of a single box message. */
+  public static int trimSyncSize(@Nullable ShulkerTrim trim) {
+    return trim != null ? 13 + trimSize(trim) : 13;
+  }
+
+  /** Encode a single box message. The buffer must have {@link #trimSyncSize} bytes remaining. */
+  public static void writeTrimSync(
+      @NotNull ByteBuffer out, int x, int y, int z, @Nullable ShulkerTrim trim) {
+    out.putInt(x).putInt(y).putInt(z);
+    out.put((byte) (trim != null ? 1 : 0));
+    if (trim != null) {
+      writeTrim(out, trim);
+    }
+  }
+
+  /**
+   * Decode a single box message. Trims with invalid identifiers decode as no trim.
+   *
+   * @throws BufferUnderflowException If the message is truncated
+   */
+  public static <T> T readTrimSync(@NotNull ByteBuffer in, @NotNull TrimSyncFactory<T> factory) {
+    int x = in.getInt();
+    int y = in.getInt();
+    int z = in.getInt();
+    ShulkerTrim trim = in.get() != 0 ? readTrim(in) : null;
+    return factory.create(x, y, z, trim);
+  }
+
+  /** Encoded size of one entry of a chunk message. */
+  public static int chunkEntrySize(@NotNull ShulkerTrim trim) {
+    return 12 + trimSize(trim);
+  }
+
+  /**
+   * Encode a chunk message's header, to be followed by {@code count} calls to {@link
+   * #writeChunkEntry}. The whole message takes {@link #CHUNK_HEADER_BYTES} plus the {@link
+   * #chunkEntrySize} of every entry.
+   */
+  public static void writeChunkHeader(@NotNull ByteBuffer out, int chunkX, int chunkZ, int count) {
+    out.putInt(chunkX).putInt(chunkZ).putInt(count);
+  }
+
+  /** Encode one entry of a chunk message. */
+  public static void writeChunkEntry(
+      @NotNull ByteBuffer out, int x, int y, int z, @NotNull ShulkerTrim trim) {
+    out.putInt(x).putInt(y).putInt(z);
+    writeTrim(out, trim);
+  }
+
+  /**
+   * Decode a chunk message.
+   *
+   * @throws IllegalArgumentException If the entry count cannot fit in the message
+   * @throws BufferUnderflowException If the message is truncated
+   */
+  public static <T> T readChunkTrims(@NotNull ByteBuffer in, @NotNull ChunkTrimsReader<T> reader) {
+    int chunkX = in.getInt();
+    int chunkZ = in.getInt();
+    int count = in.getInt();
+    if (count < 0 || count > in.remaining() / MIN_CHUNK_ENTRY_BYTES) {
+      throw new IllegalArgumentException("Invalid chunk trim count: " + count);
+    }
+    T chunk = reader.create(chunkX, chunkZ, count);
+    for (int i = 0; i < count; i++) {
+      int x = in.getInt();
+      int y = in.getInt();
+      int z = in.getInt();
+      ShulkerTrim trim = readTrim(in);
+      if (trim != null) {
+        reader.add(chunk, x, y, z, trim);
+      }
+    }
+    return chunk;
+  }
+
+  /** Encode a chunk hash message. The buffer must have {@link #CHUNK_HASH_BYTES} remaining. */
+  public static void writeChunkHash(@NotNull ByteBuffer out, int chunkX, int chunkZ, long hash) {
+    out.putInt(chunkX).putInt(chunkZ).putLong(hash);
+  }
+
+  /**
+   * Decode a chunk hash message.
+   *
+   * @throws BufferUnderflowException If the message is truncated
+   */
+  public static <T> T readChunkHash(@NotNull ByteBuffer in, @NotNull ChunkHashFactory<T> factory) {
+    int chunkX = in.getInt();
+    int chunkZ = in.getInt();
+    return factory.create(chunkX, chunkZ, in.getLong());
+  }
+
+  private static int trimSize(ShulkerTrim trim) {
+    return identifierSize(trim.pattern()) + identifierSize(trim.material());
+  }
+
+  private static void writeTrim(ByteBuffer out, ShulkerTrim trim) {
+    writeIdentifier(out, trim.pattern());
+    writeIdentifier(out, trim.material());
+  }
+
+  /** Read a pattern and material, returning the canonical trim, or null if either is invalid. */
+  @Nullable
+  private static ShulkerTrim readTrim(ByteBuffer in) {
+    String pattern = readIdentifier(in);
+    String material = readIdentifier(in);
+    return TrimRegistry.global().of(pattern, material);
+  }
+
+  static int identifierSize(String id) {
+    return 2 + (isAscii(id) ? id.length() : id.getBytes(StandardCharsets.UTF_8).length);
+  }
+
+  static void writeIdentifier(ByteBuffer out, String id) {
+    if (!isAscii(id)) {
+      // Only invalid identifiers get here; encode them anyway so the reader can skip them
+      byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+      checkLength(bytes.length);
+      out.putShort((short) bytes.length).put(bytes);
+      return;
+    }
+    int length = id.length();
+    checkLength(length);
+    out.putShort((short) length);
+    for (int i = 0; i < length; i++) {
+      out.put((byte) id.charAt(i));
+    }
+  }
+
+  static String readIdentifier(ByteBuffer in) {
+    int length = in.getShort() & 0xFFFF;
+    if (length > in.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    int start = in.position();
+    in.position(start + length);
+
+    // For ASCII this is String.hashCode() of the decoded identifier
+    int hash = 0;
+    boolean ascii = true;
+    for (int i = start; i < start + length; i++) {
+      byte b = in.get(i);
+      hash = 31 * hash + b;
+      ascii &= b >= 0;
+    }
+    if (!ascii) {
+      return decode(in, start, length, StandardCharsets.UTF_8);
+    }
+
+    int slot = (hash ^ (hash >>> 16)) & (IDENTIFIER_CACHE_SIZE - 1);
+    String cached = IDENTIFIERS[slot];
+    if (cached != null && cached.hashCode() == hash && matches(cached, in, start, length)) {
+      return cached;
+    }
+    String id = decode(in, start, length, StandardCharsets.US_ASCII);
+    IDENTIFIERS[slot] = id;
+    return id;
+  }
+
+  private static boolean isAscii(String id) {
+    for (int i = 0; i < id.length(); i++) {
+      if (id.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void checkLength(int length) {
+    if (length > MAX_IDENTIFIER_BYTES) {
+      throw new IllegalArgumentException("Identifier too long to encode: " + length + " bytes");
+    }
+  }
+
+  private static boolean matches(String id, ByteBuffer in, int start, int length) {
+    if (id.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (id.charAt(i) != in.get(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String decode(ByteBuffer in, int start, int length, Charset charset) {
+    if (in.hasArray()) {
+      return new String(in.array(), in.arrayOffset() + start, length, charset);
+    }
+    byte[] bytes = new byte[length];
+    in.get(start, bytes);
+    return new String(bytes, charset);
+  }
+}
@@ -0,0 +1,56 @@
+package com.wlritchi.shulkertrims.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link TrimChunkHash}. */
+class TrimChunkHashTest {
+
+  private static final ShulkerTrim SENTRY_GOLD =
+      new ShulkerTrim("minecraft:sentry", "minecraft:gold");
+  private static final ShulkerTrim WILD_IRON = new ShulkerTrim("minecraft:wild", "minecraft:iron");
+
+  @Test
+  @DisplayName("empty chunk hashes to zero")
+  void emptyChunkHashesToZero() {
+    assertEquals(0L, new TrimChunkHash().value());
+  }
+
+  @Test
+  @DisplayName("hash does not depend on insertion order")
+  void hashIsOrderIndependent() {
+    long forward = new TrimChunkHash().add(1, 64, 2, SENTRY_GOLD).add(3, 70, 4, WILD_IRON).value();
+    long backward = new TrimChunkHash().add(3, 70, 4, WILD_IRON).add(1, 64, 2, SENTRY_GOLD).value();
+
+    assertEquals(forward, backward);
+  }
+
+  @Test
+  @DisplayName("hash changes when a trim changes")
+  void hashChangesWithTrim() {
+    long before = new TrimChunkHash().add(1, 64, 2, SENTRY_GOLD).value();
+    long after = new TrimChunkHash().add(1, 64, 2, WILD_IRON).value();
+
+    assertNotEquals(before, after);
+  }
+
+  @Test
+  @DisplayName("hash changes when a box moves")
+  void hashChangesWithPosition() {
+    long before = new TrimChunkHash().add(1, 64, 2, SENTRY_GOLD).value();
+    long after = new TrimChunkHash().add(2, 64, 1, SENTRY_GOLD).value();
+
+    assertNotEquals(before, after);
+  }
+
+  @Test
+  @DisplayName("hash changes when a box is added")
+  void hashChangesWithAddedBox() {
+    long before = new TrimChunkHash().add(1, 64, 2, SENTRY_GOLD).value();
+    long after = new TrimChunkHash().add(1, 64, 2, SENTRY_GOLD).add(1, 65, 2, SENTRY_GOLD).value();
+
+    assertNotEquals(before, after);
+  }
+}
@@ -2,6 +2,9 @@ package com.wlritchi.shulkertrims.common;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -29,12 +32,13 @@ class TrimMaterialsTest {
       assertTrue(TrimMaterials.COLORS.containsKey("minecraft:diamond"));
       assertTrue(TrimMaterials.COLORS.containsKey("minecraft:lapis"));
       assertTrue(TrimMaterials.COLORS.containsKey("minecraft:amethyst"));
+      assertTrue(TrimMaterials.COLORS.containsKey("minecraft:resin"));
     }
 
     @Test
-    @DisplayName("has exactly 10 materials")
-    void hasExactlyTenMaterials() {
-      assertEquals(10, TrimMaterials.COLORS.size());
+    @DisplayName("has exactly 11 materials")
+    void hasExactlyElevenMaterials() {
+      assertEquals(11, TrimMaterials.COLORS.size());
     }
 
     @ParameterizedTest
@@ -49,7 +53,8 @@ class TrimMaterialsTest {
       "minecraft:emerald, 0x11A036",
       "minecraft:diamond, 0x6EECD2",
       "minecraft:lapis, 0x416E97",
-      "minecraft:amethyst, 0x9A5CC6"
+      "minecraft:amethyst, 0x9A5CC6",
+      "minecraft:resin, 0xFC7812"
     })
     void returnsCorrectColorForMaterial(String material, String expectedColorHex) {
       int expectedColor = Integer.decode(expectedColorHex);
@@ -81,7 +86,8 @@ class TrimMaterialsTest {
       "minecraft:emerald, 1155126", // 0x11A036
       "minecraft:diamond, 7269586", // 0x6EECD2
       "minecraft:lapis, 4288151", // 0x416E97
-      "minecraft:amethyst, 10116294" // 0x9A5CC6
+      "minecraft:amethyst, 10116294", // 0x9A5CC6
+      "minecraft:resin, 16545810" // 0xFC7812
     })
     void returnsCorrectColorForKnownMaterials(String material, int expectedColor) {
       assertEquals(expectedColor, TrimMaterials.getColor(material));
@@ -204,6 +210,82 @@ class TrimMaterialsTest {
     }
   }
 
+  @Nested
+  @DisplayName("Allocation-free lookups")
+  class AllocationFreeLookupTests {
+
+    @Test
+    @DisplayName("writes components into the given array")
+    void writesIntoGivenArray() {
+      float[] dest = new float[3];
+
+      assertSame(dest, TrimMaterials.getColorComponents("minecraft:gold", dest));
+      assertArrayEquals(TrimMaterials.getColorComponents("minecraft:gold"), dest, 0.0f);
+    }
+
+    @Test
+    @DisplayName("looks up colors by registry material index")
+    void looksUpByMaterialIndex() {
+      TrimRegistry.global().rebuild(List.of(), TrimMaterials.COLORS.keySet());
+      TrimMaterials.rebuild(TrimMaterials.COLORS);
+      int id = TrimRegistry.global().materialId("minecraft:lapis");
+
+      assertEquals(0x416E97, TrimMaterials.getColorById(id));
+      float[] dest = TrimMaterials.getColorComponentsById(id, new float[3]);
+      assertEquals(0x41 / 255f, dest[0], 0.001f, "Red component");
+      assertEquals(0x6E / 255f, dest[1], 0.001f, "Green component");
+      assertEquals(0x97 / 255f, dest[2], 0.001f, "Blue component");
+    }
+
+    @Test
+    @DisplayName("resolves materials indexed after the palette was built")
+    void resolvesLateIndexedMaterials() {
+      TrimRegistry.global().rebuild(List.of(), List.of());
+      TrimMaterials.rebuild(TrimMaterials.COLORS);
+      TrimRegistry.global().rebuild(List.of(), TrimMaterials.COLORS.keySet());
+      int id = TrimRegistry.global().materialId("minecraft:amethyst");
+
+      assertEquals(0x9A5CC6, TrimMaterials.getColorById(id));
+      float[] dest = TrimMaterials.getColorComponentsById(id, new float[3]);
+      assertEquals(0x9A / 255f, dest[0], 0.001f, "Red component");
+    }
+
+    @Test
+    @DisplayName("returns default gray for unknown indices")
+    void returnsDefaultGrayForUnknownIndices() {
+      assertEquals(TrimMaterials.DEFAULT_COLOR, TrimMaterials.getColorById(TrimRegistry.NO_ID));
+      assertEquals(
+          TrimMaterials.DEFAULT_COLOR, TrimMaterials.getColorById(TrimRegistry.MAX_COMPONENTS));
+    }
+  }
+
+  @Nested
+  @DisplayName("Registry rebuild")
+  class RebuildTests {
+
+    @AfterEach
+    void restoreVanillaPalette() {
+      TrimMaterials.rebuild(TrimMaterials.COLORS);
+    }
+
+    @Test
+    @DisplayName("datapack materials get their registry color")
+    void datapackMaterialsGetTheirColor() {
+      TrimMaterials.rebuild(Map.of("minecraft:gold", 0xDEB12D, "datapack:obsidian", 0x1A1024));
+
+      assertEquals(0x1A1024, TrimMaterials.getColor("datapack:obsidian"));
+      assertEquals(0xDEB12D, TrimMaterials.getColor("minecraft:gold"));
+    }
+
+    @Test
+    @DisplayName("materials missing from the registry fall back to gray")
+    void missingMaterialsFallBackToGray() {
+      TrimMaterials.rebuild(Map.of("minecraft:gold", 0xDEB12D));
+
+      assertEquals(TrimMaterials.DEFAULT_COLOR, TrimMaterials.getColor("minecraft:iron"));
+    }
+  }
+
   @Nested
   @DisplayName("Color values verification")
   class ColorValuesVerificationTests {
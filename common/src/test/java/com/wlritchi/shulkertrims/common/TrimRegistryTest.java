@@ -0,0 +1,222 @@
+package com.wlritchi.shulkertrims.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link TrimRegistry}. */
+class TrimRegistryTest {
+
+  @Nested
+  @DisplayName("Interning")
+  class InterningTests {
+
+    @Test
+    @DisplayName("returns the same instance for equal pattern and material strings")
+    void returnsSameInstance() {
+      TrimRegistry registry = new TrimRegistry();
+
+      ShulkerTrim first = registry.of("minecraft:sentry", "minecraft:gold");
+      ShulkerTrim second = registry.of(new String("minecraft:sentry"), "minecraft:gold");
+
+      assertNotNull(first);
+      assertSame(first, second);
+      assertEquals(new ShulkerTrim("minecraft:sentry", "minecraft:gold"), first);
+    }
+
+    @Test
+    @DisplayName("returns null for invalid identifiers")
+    void rejectsInvalidIdentifiers() {
+      TrimRegistry registry = new TrimRegistry();
+
+      assertNull(registry.of("Minecraft:Sentry", "minecraft:gold"));
+      assertNull(registry.of("minecraft:sentry", "gold"));
+      assertEquals(0, registry.size());
+    }
+
+    @Test
+    @DisplayName("intern returns the instance already created by of")
+    void internMatchesOf() {
+      TrimRegistry registry = new TrimRegistry();
+      ShulkerTrim canonical = registry.of("minecraft:wild", "minecraft:iron");
+
+      assertSame(canonical, registry.intern(new ShulkerTrim("minecraft:wild", "minecraft:iron")));
+    }
+
+    @Test
+    @DisplayName("intern returns invalid trims unchanged without interning them")
+    void internLeavesInvalidTrims() {
+      TrimRegistry registry = new TrimRegistry();
+      ShulkerTrim invalid = new ShulkerTrim("not an id", "minecraft:iron");
+
+      assertSame(invalid, registry.intern(invalid));
+      assertEquals(0, registry.size());
+    }
+  }
+
+  @Nested
+  @DisplayName("Unindexed trims")
+  class UnindexedTests {
+
+    @Test
+    @DisplayName("only a bounded number of unindexed trims are interned")
+    void unindexedTrimsAreBounded() {
+      TrimRegistry registry = new TrimRegistry();
+      for (int i = 0; i < TrimRegistry.MAX_UNINDEXED; i++) {
+        assertNotNull(registry.of("test:pattern_" + i, "minecraft:gold"));
+      }
+
+      ShulkerTrim overflow = registry.of("test:one_too_many", "minecraft:gold");
+
+      assertEquals(new ShulkerTrim("test:one_too_many", "minecraft:gold"), overflow);
+      assertNotSame(overflow, registry.of("test:one_too_many", "minecraft:gold"));
+      assertEquals(TrimRegistry.MAX_UNINDEXED, registry.size());
+    }
+
+    @Test
+    @DisplayName("registered trims are interned even when the unindexed limit is reached")
+    void registeredTrimsIgnoreUnindexedLimit() {
+      TrimRegistry registry = new TrimRegistry();
+      registry.rebuild(List.of("minecraft:sentry"), List.of("minecraft:gold"));
+      for (int i = 0; i < TrimRegistry.MAX_UNINDEXED; i++) {
+        registry.of("test:pattern_" + i, "minecraft:gold");
+      }
+
+      ShulkerTrim registered = registry.of("minecraft:sentry", "minecraft:gold");
+
+      assertSame(registered, registry.of("minecraft:sentry", "minecraft:gold"));
+    }
+  }
+
+  @Nested
+  @DisplayName("Pair IDs")
+  class PairIdTests {
+
+    private static final List<String> PATTERNS = List.of("minecraft:wild", "minecraft:sentry");
+    private static final List<String> MATERIALS =
+        List.of("minecraft:iron", "minecraft:gold", "minecraft:amethyst");
+
+    @Test
+    @DisplayName("every registered pair gets a distinct ID below the pair count")
+    void pairIdsAreCompact() {
+      TrimRegistry registry = new TrimRegistry();
+      registry.rebuild(PATTERNS, MATERIALS);
+
+      assertEquals(6, registry.pairCount());
+      boolean[] seen = new boolean[registry.pairCount()];
+      for (String pattern : PATTERNS) {
+        for (String material : MATERIALS) {
+          int id = registry.pairId(registry.of(pattern, material));
+          assertTrue(id >= 0 && id < registry.pairCount());
+          assertFalse(seen[id]);
+          seen[id] = true;
+        }
+      }
+    }
+
+    @Test
+    @DisplayName("byPairId returns the canonical trim for the ID")
+    void byPairIdRoundTrips() {
+      TrimRegistry registry = new TrimRegistry();
+      registry.rebuild(PATTERNS, MATERIALS);
+      ShulkerTrim canonical = registry.of("minecraft:sentry", "minecraft:gold");
+
+      assertSame(canonical, registry.byPairId(registry.pairId(canonical)));
+      ShulkerTrim unseen =
+          registry.byPairId(registry.pairId(new ShulkerTrim("minecraft:wild", "minecraft:iron")));
+      assertEquals(new ShulkerTrim("minecraft:wild", "minecraft:iron"), unseen);
+      assertSame(unseen, registry.of("minecraft:wild", "minecraft:iron"));
+    }
+
+    @Test
+    @DisplayName("trims outside the registries and out of range IDs have no pair")
+    void unregisteredPairsHaveNoId() {
+      TrimRegistry registry = new TrimRegistry();
+      registry.rebuild(PATTERNS, MATERIALS);
+
+      assertEquals(
+          TrimRegistry.NO_ID, registry.pairId(registry.of("custom:pattern", "minecraft:gold")));
+      assertEquals(
+          TrimRegistry.NO_ID, registry.pairId(registry.of("minecraft:wild", "custom:material")));
+      assertNull(registry.byPairId(TrimRegistry.NO_ID));
+      assertNull(registry.byPairId(registry.pairCount()));
+    }
+
+    @Test
+    @DisplayName("an empty registry has no pairs")
+    void emptyRegistryHasNoPairs() {
+      TrimRegistry registry = new TrimRegistry();
+
+      assertEquals(0, registry.pairCount());
+      assertEquals(
+          TrimRegistry.NO_ID, registry.pairId(new ShulkerTrim("minecraft:wild", "minecraft:iron")));
+      assertNull(registry.byPairId(0));
+    }
+  }
+
+  @Nested
+  @DisplayName("Rebuild")
+  class RebuildTests {
+
+    private static final List<String> PATTERNS =
+        List.of("minecraft:wild", "minecraft:sentry", "minecraft:coast");
+    private static final List<String> MATERIALS =
+        List.of("minecraft:iron", "minecraft:gold", "minecraft:amethyst");
+
+    @Test
+    @DisplayName("material indices follow the sorted registry identifiers")
+    void materialIndicesAreSorted() {
+      TrimRegistry registry = new TrimRegistry();
+
+      registry.rebuild(PATTERNS, MATERIALS);
+
+      assertEquals(0, registry.materialId("minecraft:amethyst"));
+      assertEquals(1, registry.materialId("minecraft:gold"));
+      assertEquals(2, registry.materialId("minecraft:iron"));
+      assertEquals("minecraft:gold", registry.material(1));
+    }
+
+    @Test
+    @DisplayName("identifiers outside the registries get no index")
+    void unknownIdentifiersGetNoIndex() {
+      TrimRegistry registry = new TrimRegistry();
+      registry.rebuild(PATTERNS, MATERIALS);
+
+      ShulkerTrim custom = registry.of("minecraft:sentry", "datapack:obsidian");
+
+      assertNotNull(custom);
+      assertSame(custom, registry.of("minecraft:sentry", "datapack:obsidian"));
+      assertEquals(TrimRegistry.NO_ID, registry.materialId("datapack:obsidian"));
+      assertNull(registry.material(MATERIALS.size()));
+    }
+
+    @Test
+    @DisplayName("canonical instances survive a rebuild")
+    void canonicalInstancesSurvive() {
+      TrimRegistry registry = new TrimRegistry();
+      ShulkerTrim before = registry.of("minecraft:sentry", "minecraft:gold");
+
+      registry.rebuild(PATTERNS, MATERIALS);
+
+      assertSame(before, registry.of("minecraft:sentry", "minecraft:gold"));
+      assertSame(before, registry.intern(new ShulkerTrim("minecraft:sentry", "minecraft:gold")));
+      assertEquals(1, registry.size());
+    }
+
+    @Test
+    @DisplayName("canonical instances survive leaving the registries")
+    void canonicalInstancesSurviveRemoval() {
+      TrimRegistry registry = new TrimRegistry();
+      registry.rebuild(PATTERNS, MATERIALS);
+      ShulkerTrim before = registry.of("minecraft:coast", "minecraft:iron");
+
+      registry.rebuild(List.of("minecraft:wild"), MATERIALS);
+
+      assertSame(before, registry.of("minecraft:coast", "minecraft:iron"));
+      assertEquals(1, registry.size());
+    }
+  }
+}
@@ -0,0 +1,263 @@
+package com.wlritchi.shulkertrims.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link TrimSyncCodec}. */
+class TrimSyncCodecTest {
+
+  private static final ShulkerTrim TRIM =
+      TrimRegistry.global().of("minecraft:wayfinder", "minecraft:netherite");
+
+  record Sync(int x, int y, int z, ShulkerTrim trim) {}
+
+  record Entry(int x, int y, int z, ShulkerTrim trim) {}
+
+  record Chunk(int chunkX, int chunkZ, List<Entry> entries) {}
+
+  record Hash(int chunkX, int chunkZ, long hash) {}
+
+  private static final TrimSyncCodec.ChunkTrimsReader<Chunk> CHUNK_READER =
+      new TrimSyncCodec.ChunkTrimsReader<>() {
+        @Override
+        public Chunk create(int chunkX, int chunkZ, int count) {
+          return new Chunk(chunkX, chunkZ, new ArrayList<>(count));
+        }
+
+        @Override
+        public void add(Chunk chunk, int x, int y, int z, ShulkerTrim trim) {
+          chunk.entries().add(new Entry(x, y, z, trim));
+        }
+      };
+
+  /** Writes an identifier the way both platforms did before the shared codec. */
+  private static void writeLegacyUtf(DataOutputStream out, String str) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    out.writeShort(bytes.length);
+    out.write(bytes);
+  }
+
+  private static ByteBuffer encodeTrimSync(int x, int y, int z, ShulkerTrim trim) {
+    ByteBuffer out = ByteBuffer.allocate(TrimSyncCodec.trimSyncSize(trim));
+    TrimSyncCodec.writeTrimSync(out, x, y, z, trim);
+    assertFalse(out.hasRemaining(), "Size must match the bytes written");
+    return out.flip();
+  }
+
+  @Nested
+  @DisplayName("Single box messages")
+  class TrimSyncTests {
+
+    @Test
+    @DisplayName("matches the existing wire format")
+    void matchesWireFormat() throws IOException {
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(expected);
+      out.writeInt(123);
+      out.writeInt(64);
+      out.writeInt(-456);
+      out.writeBoolean(true);
+      writeLegacyUtf(out, TRIM.pattern());
+      writeLegacyUtf(out, TRIM.material());
+
+      ByteBuffer encoded = encodeTrimSync(123, 64, -456, TRIM);
+
+      assertArrayEquals(expected.toByteArray(), encoded.array());
+    }
+
+    @Test
+    @DisplayName("round-trips to the canonical trim")
+    void roundTrips() {
+      Sync sync = TrimSyncCodec.readTrimSync(encodeTrimSync(1, -2, 3, TRIM), Sync::new);
+
+      assertEquals(new Sync(1, -2, 3, TRIM), sync);
+      assertSame(TRIM, sync.trim());
+    }
+
+    @Test
+    @DisplayName("round-trips a removal")
+    void roundTripsRemoval() {
+      ByteBuffer encoded = encodeTrimSync(1, 2, 3, null);
+
+      assertEquals(13, encoded.remaining());
+      assertEquals(new Sync(1, 2, 3, null), TrimSyncCodec.readTrimSync(encoded, Sync::new));
+    }
+
+    @Test
+    @DisplayName("decodes invalid identifiers as no trim")
+    void invalidIdentifiersDecodeAsNoTrim() {
+      ByteBuffer encoded = encodeTrimSync(1, 2, 3, new ShulkerTrim("Not Valid", "minecraft:gold"));
+
+      assertNull(TrimSyncCodec.readTrimSync(encoded, Sync::new).trim());
+      assertFalse(encoded.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("rejects truncated messages")
+    void rejectsTruncated() {
+      ByteBuffer encoded = encodeTrimSync(1, 2, 3, TRIM);
+      encoded.limit(encoded.limit() - 1);
+
+      assertThrows(
+          BufferUnderflowException.class, () -> TrimSyncCodec.readTrimSync(encoded, Sync::new));
+    }
+
+    @Test
+    @DisplayName("decodes from direct buffers")
+    void decodesDirectBuffers() {
+      ByteBuffer heap = encodeTrimSync(1, 2, 3, TRIM);
+      ByteBuffer direct = ByteBuffer.allocateDirect(heap.remaining()).put(heap).flip();
+
+      assertSame(TRIM, TrimSyncCodec.readTrimSync(direct, Sync::new).trim());
+    }
+  }
+
+  @Nested
+  @DisplayName("Chunk messages")
+  class ChunkTests {
+
+    private ByteBuffer encodeChunk(int chunkX, int chunkZ, List<Entry> entries) {
+      int size = TrimSyncCodec.CHUNK_HEADER_BYTES;
+      for (Entry entry : entries) {
+        size += TrimSyncCodec.chunkEntrySize(entry.trim());
+      }
+      ByteBuffer out = ByteBuffer.allocate(size);
+      TrimSyncCodec.writeChunkHeader(out, chunkX, chunkZ, entries.size());
+      for (Entry entry : entries) {
+        TrimSyncCodec.writeChunkEntry(out, entry.x(), entry.y(), entry.z(), entry.trim());
+      }
+      assertFalse(out.hasRemaining(), "Size must match the bytes written");
+      return out.flip();
+    }
+
+    @Test
+    @DisplayName("matches the existing wire format")
+    void matchesWireFormat() throws IOException {
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(expected);
+      out.writeInt(2);
+      out.writeInt(-3);
+      out.writeInt(1);
+      out.writeInt(32);
+      out.writeInt(70);
+      out.writeInt(-48);
+      writeLegacyUtf(out, TRIM.pattern());
+      writeLegacyUtf(out, TRIM.material());
+
+      ByteBuffer encoded = encodeChunk(2, -3, List.of(new Entry(32, 70, -48, TRIM)));
+
+      assertArrayEquals(expected.toByteArray(), encoded.array());
+    }
+
+    @Test
+    @DisplayName("round-trips every entry")
+    void roundTrips() {
+      ShulkerTrim other = TrimRegistry.global().of("minecraft:sentry", "minecraft:gold");
+      List<Entry> entries = List.of(new Entry(32, 70, -48, TRIM), new Entry(33, 70, -48, other));
+
+      Chunk chunk = TrimSyncCodec.readChunkTrims(encodeChunk(2, -3, entries), CHUNK_READER);
+
+      assertEquals(new Chunk(2, -3, entries), chunk);
+    }
+
+    @Test
+    @DisplayName("skips entries with invalid identifiers")
+    void skipsInvalidEntries() {
+      List<Entry> entries =
+          List.of(
+              new Entry(0, 0, 0, new ShulkerTrim("minecraft:sentry", "")),
+              new Entry(1, 0, 0, TRIM));
+
+      Chunk chunk = TrimSyncCodec.readChunkTrims(encodeChunk(0, 0, entries), CHUNK_READER);
+
+      assertEquals(List.of(new Entry(1, 0, 0, TRIM)), chunk.entries());
+    }
+
+    @Test
+    @DisplayName("rejects counts that cannot fit in the message")
+    void rejectsImpossibleCounts() {
+      ByteBuffer encoded = encodeChunk(0, 0, List.of(new Entry(0, 0, 0, TRIM)));
+      encoded.putInt(8, 1_000_000);
+
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> TrimSyncCodec.readChunkTrims(encoded, CHUNK_READER));
+    }
+  }
+
+  @Nested
+  @DisplayName("Chunk hash messages")
+  class ChunkHashTests {
+
+    @Test
+    @DisplayName("round-trips")
+    void roundTrips() {
+      ByteBuffer out = ByteBuffer.allocate(TrimSyncCodec.CHUNK_HASH_BYTES);
+      TrimSyncCodec.writeChunkHash(out, -7, 9, 0x0123456789ABCDEFL);
+
+      assertFalse(out.hasRemaining());
+      assertEquals(
+          new Hash(-7, 9, 0x0123456789ABCDEFL), TrimSyncCodec.readChunkHash(out.flip(), Hash::new));
+    }
+  }
+
+  @Nested
+  @DisplayName("Identifiers")
+  class IdentifierTests {
+
+    private ByteBuffer encode(String id) {
+      ByteBuffer out = ByteBuffer.allocate(TrimSyncCodec.identifierSize(id));
+      TrimSyncCodec.writeIdentifier(out, id);
+      assertFalse(out.hasRemaining(), "Size must match the bytes written");
+      return out.flip();
+    }
+
+    @Test
+    @DisplayName("repeated reads return the same string")
+    void repeatedReadsShareStrings() {
+      String first = TrimSyncCodec.readIdentifier(encode("minecraft:bolt"));
+      String second = TrimSyncCodec.readIdentifier(encode("minecraft:bolt"));
+
+      assertEquals("minecraft:bolt", first);
+      assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("non-ASCII strings round-trip as UTF-8")
+    void nonAsciiRoundTrips() {
+      ByteBuffer encoded = encode("minecraft:é");
+
+      assertEquals(2 + "minecraft:é".getBytes(StandardCharsets.UTF_8).length, encoded.remaining());
+      assertEquals("minecraft:é", TrimSyncCodec.readIdentifier(encoded));
+    }
+
+    @Test
+    @DisplayName("lengths above 32767 bytes are read as unsigned")
+    void longIdentifiersRoundTrip() {
+      String id = "a".repeat(40_000);
+
+      assertEquals(id, TrimSyncCodec.readIdentifier(encode(id)));
+    }
+
+    @Test
+    @DisplayName("rejects identifiers longer than the length prefix allows")
+    void rejectsOverlongIdentifiers() {
+      String id = "a".repeat(70_000);
+
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> TrimSyncCodec.writeIdentifier(ByteBuffer.allocate(80_000), id));
+    }
+  }
+}
@@ -14,7 +14,8 @@ plugins {
     id("fabric-loom")
 }
 
-// Task to extract shulker trim PNGs from BlockBench model file
+// Task to extract shulker trim PNGs from BlockBench model file.
+// Each trim is padded to the 64x64 shulker texture canvas, and a report lists its opaque bounds.
 abstract class ExtractShulkerTrims : DefaultTask() {
     @get:InputFile
     abstract val bbmodelFile: RegularFileProperty
@@ -22,6 +23,9 @@ abstract class ExtractShulkerTrims : DefaultTask() {
     @get:OutputDirectory
     abstract val outputDir: DirectoryProperty
 
+    @get:OutputFile
+    abstract val reportFile: RegularFileProperty
+
     private val trimPatterns = listOf(
         "sentry", "vex", "wild", "coast", "dune", "wayfinder",
         "raiser", "shaper", "host", "ward", "silence", "tide",
@@ -58,6 +62,10 @@ abstract class ExtractShulkerTrims : DefaultTask() {
         val outDir = outputDir.get().asFile
         outDir.mkdirs()
 
+        val reportLines = mutableListOf<String>()
+        var paddedPixels = 0L
+        var croppedPixels = 0L
+
         for (pattern in trimPatterns) {
             val layer = layersByName[pattern]
                 ?: throw GradleException("Layer '$pattern' not found in bbmodel")
@@ -91,12 +99,61 @@ abstract class ExtractShulkerTrims : DefaultTask() {
                 padded
             }
 
+            // Measure the opaque bounds for the report; most of the canvas is transparent. The
+            // texture keeps the full canvas, since atlas sprites are addressed with the box model's
+            // UVs. The client finds the same bounds when it palettes composited box textures.
+            var minX = outputImage.width
+            var minY = outputImage.height
+            var maxX = -1
+            var maxY = -1
+            for (y in 0 until outputImage.height) {
+                for (x in 0 until outputImage.width) {
+                    if ((outputImage.getRGB(x, y) ushr 24) != 0) {
+                        minX = minOf(minX, x)
+                        minY = minOf(minY, y)
+                        maxX = maxOf(maxX, x)
+                        maxY = maxOf(maxY, y)
+                    }
+                }
+            }
+            if (maxX < 0) {
+                // Fully transparent layer: keep a single pixel
+                minX = 0
+                minY = 0
+                maxX = 0
+                maxY = 0
+            }
+            val width = maxX - minX + 1
+            val height = maxY - minY + 1
+
             val outFile = File(outDir, "$pattern.png")
             ImageIO.write(outputImage, "PNG", outFile)
-            logger.info("Extracted $pattern.png (${sourceImage.width}x${sourceImage.height} -> 64x64)")
+            paddedPixels += 64L * 64L
+            croppedPixels += width.toLong() * height
+            reportLines += "$pattern: ${width}x$height at ($minX, $minY)"
+            logger.info("Extracted $pattern.png (${sourceImage.width}x${sourceImage.height}, opaque ${width}x$height at $minX,$minY)")
         }
 
-        logger.lifecycle("Extracted ${trimPatterns.size} shulker trim textures")
+        // Footprint report. The shipped textures and their armor trims atlas sprites (one per
+        // pattern for each of the 11 vanilla trim materials) keep the padded size; the opaque
+        // bounds only limit the pixels paletted and composited on the CPU.
+        val palettes = 11
+        val percent = "%.1f".format(100.0 * croppedPixels / paddedPixels)
+        val report = buildList {
+            add("Shulker trim texture bounds report")
+            add("")
+            add("Patterns: ${trimPatterns.size}")
+            add("Shipped and atlas: $paddedPixels px (${paddedPixels * 4} bytes RGBA, ${paddedPixels * 4 * palettes} bytes for $palettes palettes)")
+            add("Opaque bounds: $croppedPixels px, $percent% of the canvas (CPU paletting and compositing only)")
+            add("")
+            addAll(reportLines)
+        }
+        reportFile.get().asFile.apply {
+            parentFile.mkdirs()
+            writeText(report.joinToString("\n", postfix = "\n"))
+        }
+
+        logger.lifecycle("Extracted ${trimPatterns.size} shulker trim textures ($croppedPixels of $paddedPixels px within opaque bounds, $percent%)")
     }
 }
 
@@ -106,6 +163,7 @@ val generatedResources = layout.buildDirectory.dir("generated/resources/shulker-
 val extractShulkerTrims by tasks.registering(ExtractShulkerTrims::class) {
     bbmodelFile.set(rootProject.file("art/shulker-trims.bbmodel"))
     outputDir.set(generatedResources.map { it.dir("assets/shulker_trims/textures/trims/entity/shulker") })
+    reportFile.set(layout.buildDirectory.file("reports/shulker-trims/trim-bounds.txt"))
 }
 
 // Add generated resources to source sets
@@ -164,6 +222,12 @@ sourceSets {
 // Create modIcongenImplementation and related configurations that remap mods
 loom.createRemapConfigurations(sourceSets.getByName("icongen"))
 
+// Benchmarks for the sync payloads and chunk cache need the client classes too
+sourceSets.named("jmh") {
+    compileClasspath += sourceSets.getByName("client").compileClasspath + sourceSets.getByName("client").output
+    runtimeClasspath += sourceSets.getByName("client").runtimeClasspath + sourceSets.getByName("client").output
+}
+
 // OrthoCamera for isometric icon generation (isolated to icongen source set)
 dependencies {
     "modIcongenImplementation"("maven.modrinth:orthocamera:0.1.10+1.21.9")
@@ -252,6 +316,23 @@ afterEvaluate {
         })
     }
 
+    // Pass through benchmark options to server game tests. The chunk I/O benchmark is skipped
+    // unless enabled, e.g.:
+    //   ./gradlew :fabric:runGameTest -Dshulker_trims.benchmark=true
+    tasks.named<JavaExec>("runGameTest") {
+        System.getProperties().forEach { key, value ->
+            if (key.toString().startsWith("shulker_trims.benchmark")) {
+                jvmArgs("-D$key=$value")
+            }
+        }
+
+        // Set default report location
+        if (System.getProperty("shulker_trims.benchmark.output") == null) {
+            val outputPath = project.layout.buildDirectory.file("benchmarks/chunk-block-entity-io.json").get().asFile
+            jvmArgs("-Dshulker_trims.benchmark.output=${outputPath.absolutePath}")
+        }
+    }
+
     // Configure client game tests
     tasks.named<JavaExec>("runClientGameTest") {
         // Ensure Bukkit plugin is built for Paper server tests
@@ -269,6 +350,13 @@ afterEvaluate {
                 jvmArgs("-D$key=$value")
             }
         }
+
+        // The frame time benchmark is skipped unless enabled, e.g.:
+        //   xvfb-run -a ./gradlew :fabric:runClientGameTest -Dshulker_trims.render_benchmark=true
+        if (System.getProperty("shulker_trims.render_benchmark.output") == null) {
+            val outputPath = project.layout.buildDirectory.file("benchmarks/client-frame-time.json").get().asFile
+            jvmArgs("-Dshulker_trims.render_benchmark.output=${outputPath.absolutePath}")
+        }
     }
 }
 
@@ -0,0 +1,210 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimChunkHash;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimsMod;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.dimension.DimensionType;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The trims a Paper server last sent for each chunk of one world, kept on disk between sessions.
+ *
+ * <p>Cached trims are applied as soon as a chunk arrives, and the chunk's {@link TrimChunkHash} is
+ * reported to the server, which only resends the chunk's trims if they changed. At most {@link
+ * #MAX_CHUNKS} chunks are kept, evicting the least recently reported or updated chunk first.
+ *
+ * <p>{@link #load} and {@link #save} block on disk I/O and are run on Minecraft's I/O worker, with
+ * the cache handed over between threads whole: a loaded cache is only used once loading finishes,
+ * and a cache is only saved once nothing will modify it again. Otherwise only accessed from the
+ * client thread.
+ */
+final class ChunkTrimCache {
+  private static final int FORMAT_VERSION = 1;
+
+  /** Most chunks remembered per world. */
+  private static final int MAX_CHUNKS = 65536;
+
+  /** Most trims a chunk can hold: one per block of the tallest chunk a dimension can have. */
+  private static final int MAX_TRIMS_PER_CHUNK = 16 * 16 * DimensionType.MAX_HEIGHT;
+
+  private final @Nullable Path file;
+
+  /** Cached trims by chunk, from least to most recently used. Saved and loaded in this order. */
+  private final Long2ObjectLinkedOpenHashMap<Long2ObjectMap<ShulkerTrim>> chunks =
+      new Long2ObjectLinkedOpenHashMap<>();
+
+  private boolean dirty;
+
+  private ChunkTrimCache(@Nullable Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Load a world's cache from disk, starting empty if the file is missing or unreadable.
+   *
+   * @param file The cache file, or null to keep the cache in memory only
+   */
+  static ChunkTrimCache load(@Nullable Path file) {
+    ChunkTrimCache cache = new ChunkTrimCache(file);
+    if (file == null) {
+      return cache;
+    }
+
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != FORMAT_VERSION) {
+        return cache;
+      }
+      // Counts are checked and maps grow as entries are read, so a corrupt file can't make us
+      // allocate more than its actual contents
+      int chunkCount = checkCount(in.readInt(), MAX_CHUNKS, "chunk");
+      for (int i = 0; i < chunkCount; i++) {
+        long chunk = in.readLong();
+        int trimCount = checkCount(in.readInt(), MAX_TRIMS_PER_CHUNK, "trim");
+        Long2ObjectMap<ShulkerTrim> trims = new Long2ObjectOpenHashMap<>();
+        for (int j = 0; j < trimCount; j++) {
+          long pos = in.readLong();
+          ShulkerTrim trim = TrimRegistry.global().of(in.readUTF(), in.readUTF());
+          if (trim != null) {
+            trims.put(pos, trim);
+          }
+        }
+        cache.chunks.put(chunk, trims);
+      }
+    } catch (NoSuchFileException e) {
+      // First visit to this world
+    } catch (IOException | RuntimeException e) {
+      ShulkerTrimsMod.LOGGER.warn("Discarding unreadable trim cache {}", file, e);
+      cache.chunks.clear();
+    }
+    return cache;
+  }
+
+  private static int checkCount(int count, int max, String what) throws IOException {
+    if (count < 0 || count > max) {
+      throw new IOException("Invalid " + what + " count: " + count);
+    }
+    return count;
+  }
+
+  /** Write the cache to disk if it changed since it was loaded. */
+  void save() {
+    if (file == null || !dirty) {
+      return;
+    }
+
+    try {
+      Files.createDirectories(file.getParent());
+      Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(chunks.size());
+        for (Long2ObjectMap.Entry<Long2ObjectMap<ShulkerTrim>> chunk :
+            chunks.long2ObjectEntrySet()) {
+          out.writeLong(chunk.getLongKey());
+          out.writeInt(chunk.getValue().size());
+          for (Long2ObjectMap.Entry<ShulkerTrim> entry : chunk.getValue().long2ObjectEntrySet()) {
+            out.writeLong(entry.getLongKey());
+            out.writeUTF(entry.getValue().pattern());
+            out.writeUTF(entry.getValue().material());
+          }
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      dirty = false;
+    } catch (IOException e) {
+      ShulkerTrimsMod.LOGGER.warn("Failed to save trim cache {}", file, e);
+    }
+  }
+
+  /**
+   * The cached trims in a chunk by packed block position, or null if none are cached. Marks the
+   * chunk as most recently used.
+   */
+  @Nullable
+  Long2ObjectMap<ShulkerTrim> get(long chunk) {
+    return chunks.getAndMoveToLast(chunk);
+  }
+
+  /** Hash of the cached trims in a chunk, for comparison with the server's. */
+  long hash(long chunk) {
+    Long2ObjectMap<ShulkerTrim> trims = chunks.get(chunk);
+    if (trims == null) {
+      return 0L;
+    }
+    TrimChunkHash hash = new TrimChunkHash();
+    for (Long2ObjectMap.Entry<ShulkerTrim> entry : trims.long2ObjectEntrySet()) {
+      long pos = entry.getLongKey();
+      hash.add(
+          BlockPos.unpackLongX(pos),
+          BlockPos.unpackLongY(pos),
+          BlockPos.unpackLongZ(pos),
+          entry.getValue());
+    }
+    return hash.value();
+  }
+
+  /** Record a single box's trim, or its removal if the trim is null. */
+  void put(BlockPos pos, @Nullable ShulkerTrim trim) {
+    long chunk = chunkOf(pos);
+    Long2ObjectMap<ShulkerTrim> trims = chunks.getAndMoveToLast(chunk);
+    if (trim == null) {
+      if (trims != null && trims.remove(pos.asLong()) != null) {
+        if (trims.isEmpty()) {
+          chunks.remove(chunk);
+        }
+        dirty = true;
+      }
+      return;
+    }
+
+    if (trims == null) {
+      trims = new Long2ObjectOpenHashMap<>();
+      chunks.putAndMoveToLast(chunk, trims);
+      evict();
+    }
+    if (!trim.equals(trims.put(pos.asLong(), trim))) {
+      dirty = true;
+    }
+  }
+
+  /** Replace everything cached for a chunk with the server's full list. */
+  void replace(long chunk, Long2ObjectMap<ShulkerTrim> trims) {
+    if (trims.isEmpty()) {
+      dirty |= chunks.remove(chunk) != null;
+    } else {
+      chunks.putAndMoveToLast(chunk, trims);
+      evict();
+      dirty = true;
+    }
+  }
+
+  /** Drop the least recently used chunks beyond {@link #MAX_CHUNKS}. */
+  private void evict() {
+    while (chunks.size() > MAX_CHUNKS) {
+      chunks.removeFirst();
+      dirty = true;
+    }
+  }
+
+  /** The packed position of the chunk containing a block. */
+  static long chunkOf(BlockPos pos) {
+    return ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4);
+  }
+}
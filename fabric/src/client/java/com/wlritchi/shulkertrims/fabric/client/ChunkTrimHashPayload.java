@@ -0,0 +1,43 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.common.TrimChunkHash;
+import com.wlritchi.shulkertrims.common.TrimSyncCodec;
+import com.wlritchi.shulkertrims.fabric.TrimSyncBuffers;
+import java.nio.ByteBuffer;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+/**
+ * Tells a Paper server which trims the client already has cached for a chunk it just received, as a
+ * {@link TrimChunkHash}. The server replies with a {@link ChunkTrimsPayload} only if its own hash
+ * differs. Both sides encode it with {@link TrimSyncCodec}.
+ */
+public record ChunkTrimHashPayload(int chunkX, int chunkZ, long hash) implements CustomPayload {
+
+  public static final Identifier CHANNEL_ID = Identifier.of("shulker_trims", "chunk_hash");
+  public static final CustomPayload.Id<ChunkTrimHashPayload> ID =
+      new CustomPayload.Id<>(CHANNEL_ID);
+
+  public static final PacketCodec<PacketByteBuf, ChunkTrimHashPayload> CODEC =
+      PacketCodec.of(ChunkTrimHashPayload::write, ChunkTrimHashPayload::read);
+
+  private void write(PacketByteBuf buf) {
+    ByteBuffer out = TrimSyncBuffers.beginWrite(buf, TrimSyncCodec.CHUNK_HASH_BYTES);
+    TrimSyncCodec.writeChunkHash(out, chunkX, chunkZ, hash);
+    TrimSyncBuffers.endWrite(buf, out);
+  }
+
+  public static ChunkTrimHashPayload read(PacketByteBuf buf) {
+    ByteBuffer in = TrimSyncBuffers.beginRead(buf);
+    ChunkTrimHashPayload payload = TrimSyncCodec.readChunkHash(in, ChunkTrimHashPayload::new);
+    TrimSyncBuffers.endRead(buf, in);
+    return payload;
+  }
+
+  @Override
+  public Id<? extends CustomPayload> getId() {
+    return ID;
+  }
+}
@@ -0,0 +1,73 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimSyncCodec;
+import com.wlritchi.shulkertrims.fabric.TrimSyncBuffers;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.nio.ByteBuffer;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Every trim in one chunk, sent by Paper servers in reply to a {@link ChunkTrimHashPayload} that
+ * didn't match. Both sides encode it with {@link TrimSyncCodec}.
+ *
+ * @param trims Trims by {@link BlockPos#asLong() packed block position}
+ */
+public record ChunkTrimsPayload(int chunkX, int chunkZ, Long2ObjectMap<ShulkerTrim> trims)
+    implements CustomPayload {
+
+  public static final Identifier CHANNEL_ID = Identifier.of("shulker_trims", "chunk");
+  public static final CustomPayload.Id<ChunkTrimsPayload> ID = new CustomPayload.Id<>(CHANNEL_ID);
+
+  public static final PacketCodec<PacketByteBuf, ChunkTrimsPayload> CODEC =
+      PacketCodec.of(ChunkTrimsPayload::write, ChunkTrimsPayload::read);
+
+  private static final TrimSyncCodec.ChunkTrimsReader<ChunkTrimsPayload> READER =
+      new TrimSyncCodec.ChunkTrimsReader<>() {
+        @Override
+        public ChunkTrimsPayload create(int chunkX, int chunkZ, int count) {
+          return new ChunkTrimsPayload(chunkX, chunkZ, new Long2ObjectOpenHashMap<>(count));
+        }
+
+        @Override
+        public void add(ChunkTrimsPayload chunk, int x, int y, int z, ShulkerTrim trim) {
+          chunk.trims().put(BlockPos.asLong(x, y, z), trim);
+        }
+      };
+
+  private void write(PacketByteBuf buf) {
+    int size = TrimSyncCodec.CHUNK_HEADER_BYTES;
+    for (ShulkerTrim trim : trims.values()) {
+      size += TrimSyncCodec.chunkEntrySize(trim);
+    }
+    ByteBuffer out = TrimSyncBuffers.beginWrite(buf, size);
+    TrimSyncCodec.writeChunkHeader(out, chunkX, chunkZ, trims.size());
+    for (Long2ObjectMap.Entry<ShulkerTrim> entry : trims.long2ObjectEntrySet()) {
+      long pos = entry.getLongKey();
+      TrimSyncCodec.writeChunkEntry(
+          out,
+          BlockPos.unpackLongX(pos),
+          BlockPos.unpackLongY(pos),
+          BlockPos.unpackLongZ(pos),
+          entry.getValue());
+    }
+    TrimSyncBuffers.endWrite(buf, out);
+  }
+
+  public static ChunkTrimsPayload read(PacketByteBuf buf) {
+    ByteBuffer in = TrimSyncBuffers.beginRead(buf);
+    ChunkTrimsPayload payload = TrimSyncCodec.readChunkTrims(in, READER);
+    TrimSyncBuffers.endRead(buf, in);
+    return payload;
+  }
+
+  @Override
+  public Id<? extends CustomPayload> getId() {
+    return ID;
+  }
+}
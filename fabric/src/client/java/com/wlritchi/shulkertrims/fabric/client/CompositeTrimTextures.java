@@ -0,0 +1,181 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimsMod;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.DyeColor;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Cache of shulker box textures with a trim already composited in, so a trimmed box can be drawn in
+ * one model pass instead of the vanilla box followed by a trim overlay.
+ *
+ * <p>Textures are built on demand for each (color, pattern, material) combination actually on
+ * screen, by drawing the paletted trim from {@link PalettedTrimImages} over the box texture. Trim
+ * pixels below the cutout threshold are skipped, matching what the cutout overlay layer would have
+ * discarded.
+ */
+public final class CompositeTrimTextures {
+  private CompositeTrimTextures() {}
+
+  private static final int MAX_TEXTURES = 256;
+
+  /** Trim pixels with less alpha than this are discarded by the cutout overlay layer. */
+  private static final int CUTOUT_ALPHA_THRESHOLD = 26;
+
+  private record Key(@Nullable DyeColor color, ShulkerTrim trim) {}
+
+  /** Slot in a per-trim entry array for each box color, with the undyed box last. */
+  private static final int UNDYED_SLOT = DyeColor.values().length;
+
+  /**
+   * Entries by trim and color, so per-frame lookups are keyed by the trim the box already holds
+   * instead of a freshly allocated {@link Key}. A trim is dropped when its last texture is evicted.
+   */
+  private static final Map<ShulkerTrim, DynamicTextureCache.Entry[]> BY_TRIM = new HashMap<>();
+
+  private static final DynamicTextureCache<Key> CACHE =
+      new DynamicTextureCache<>(
+          MAX_TEXTURES,
+          CompositeTrimTextures::textureId,
+          CompositeTrimTextures::build,
+          CompositeTrimTextures::evicted);
+
+  /**
+   * Get the composited texture for a shulker box color and trim, building it if needed.
+   *
+   * @param color The box color, or null for the default (undyed) box
+   * @param trim The trim
+   * @return The texture identifier, or null if the box should use the overlay pass instead, such as
+   *     while the texture waits for this frame's build budget
+   */
+  public static @Nullable Identifier get(@Nullable DyeColor color, ShulkerTrim trim) {
+    DynamicTextureCache.Entry[] entries = BY_TRIM.get(trim);
+    int slot = slot(color);
+    if (entries != null) {
+      DynamicTextureCache.Entry entry = entries[slot];
+      if (entry != null && entry.isValid()) {
+        entry.touch();
+        TrimRenderStats.textureHit();
+        return entry.textureId();
+      }
+    }
+
+    DynamicTextureCache.Entry entry = CACHE.getEntry(new Key(color, trim));
+    if (entry == null) {
+      return null;
+    }
+    if (entries == null) {
+      entries = new DynamicTextureCache.Entry[UNDYED_SLOT + 1];
+      BY_TRIM.put(trim, entries);
+    }
+    entries[slot] = entry;
+    return entry.textureId();
+  }
+
+  private static int slot(@Nullable DyeColor color) {
+    return color != null ? color.ordinal() : UNDYED_SLOT;
+  }
+
+  /** Forget an evicted texture, and its trim once none of its textures remain. */
+  private static void evicted(Key key) {
+    DynamicTextureCache.Entry[] entries = BY_TRIM.get(key.trim());
+    if (entries == null) {
+      return;
+    }
+    entries[slot(key.color())] = null;
+    for (DynamicTextureCache.Entry entry : entries) {
+      if (entry != null) {
+        return;
+      }
+    }
+    BY_TRIM.remove(key.trim());
+  }
+
+  /** Destroy all composited textures. Called on resource reload. */
+  public static void clear() {
+    CACHE.clear();
+    BY_TRIM.clear();
+  }
+
+  /**
+   * Stable identifier per color and trim. Vanilla memoizes render layers by texture, so reusing the
+   * identifier when an evicted texture is rebuilt keeps that memo bounded.
+   */
+  private static Identifier textureId(Key key) {
+    Identifier pattern = Identifier.of(key.trim().pattern());
+    Identifier material = Identifier.of(key.trim().material());
+    return Identifier.of(
+        ShulkerTrimsMod.MOD_ID,
+        "composite/"
+            + (key.color() != null ? key.color().asString() : "default")
+            + "/"
+            + pattern.getNamespace()
+            + "/"
+            + pattern.getPath()
+            + "/"
+            + material.getNamespace()
+            + "/"
+            + material.getPath());
+  }
+
+  private static @Nullable NativeImage build(ResourceManager resources, Key key)
+      throws IOException {
+    String boxPath =
+        key.color() == null
+            ? "textures/entity/shulker/shulker.png"
+            : "textures/entity/shulker/shulker_" + key.color().asString() + ".png";
+
+    try (PalettedTrimImages.CroppedImage trim =
+        PalettedTrimImages.createCropped(resources, key.trim())) {
+      if (trim == null) {
+        return null;
+      }
+      NativeImage box = PalettedTrimImages.read(resources, Identifier.ofVanilla(boxPath));
+      if (box == null) {
+        return null;
+      }
+      try {
+        drawTrim(box, trim);
+      } catch (RuntimeException e) {
+        box.close();
+        throw e;
+      }
+      return box;
+    }
+  }
+
+  /**
+   * Draw the paletted trim over the box texture in place. The trim is sampled nearest-neighbor
+   * across the canvas, so resource packs with higher resolution box textures still line up, and
+   * only box pixels inside the trim's cropped bounds are visited.
+   */
+  private static void drawTrim(NativeImage box, PalettedTrimImages.CroppedImage trim) {
+    int width = box.getWidth();
+    int height = box.getHeight();
+    NativeImage image = trim.image();
+
+    // Box pixel range whose canvas position falls inside the crop
+    int startX = Math.ceilDiv(trim.x() * width, trim.canvasWidth());
+    int endX = Math.ceilDiv((trim.x() + image.getWidth()) * width, trim.canvasWidth());
+    int startY = Math.ceilDiv(trim.y() * height, trim.canvasHeight());
+    int endY = Math.ceilDiv((trim.y() + image.getHeight()) * height, trim.canvasHeight());
+
+    for (int y = startY; y < endY; y++) {
+      int trimY = y * trim.canvasHeight() / height - trim.y();
+      for (int x = startX; x < endX; x++) {
+        int color = image.getColorArgb(x * trim.canvasWidth() / width - trim.x(), trimY);
+        if ((color >>> 24) < CUTOUT_ALPHA_THRESHOLD) {
+          continue;
+        }
+        // Cutout layers write surviving fragments opaque
+        box.setColorArgb(x, y, color | 0xFF000000);
+      }
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimsMod;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.client.texture.NativeImageBackedTexture;
+import net.minecraft.client.texture.TextureManager;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * LRU-bounded cache of textures generated on the CPU and uploaded on first use.
+ *
+ * <p>Hits only stamp the entry's last use time, so the per-frame path neither allocates nor relinks
+ * anything; the least recently used entry is found by a scan when a miss needs room. An entry used
+ * within the last second is never evicted, because its texture may still be referenced by a queued
+ * draw; if every entry is that fresh, {@link #getEntry} returns null and callers fall back to
+ * another rendering path.
+ *
+ * <p>Building is limited to about a millisecond per frame, so a screen full of new combinations is
+ * built over several frames rather than in one long stall; until then {@link #getEntry} returns
+ * null for the rest. The most recent keys that failed to build are remembered until the next {@link
+ * #clear}, so they are not retried every frame. Only accessed from the render thread.
+ *
+ * @param <K> The key type, which must have value equality
+ */
+final class DynamicTextureCache<K> {
+  private static final long EVICTION_GRACE_NANOS = 1_000_000_000L;
+
+  /** Building time allowed per frame, with frames measured at 60 FPS. */
+  private static final long BUILD_BUDGET_NANOS = 1_000_000L;
+
+  private static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+  private static final int MAX_FAILED = 256;
+
+  /** Builds the image for a key. The cache takes ownership of the returned image. */
+  @FunctionalInterface
+  interface ImageBuilder<K> {
+    @Nullable
+    NativeImage build(ResourceManager resources, K key) throws IOException;
+  }
+
+  /**
+   * A cached texture. Callers may hold on to entries to skip the key lookup, as long as they check
+   * {@link #isValid()} and call {@link #touch()} on each use.
+   */
+  static final class Entry {
+    private final Identifier textureId;
+    private long lastUsedNanos;
+    private boolean valid = true;
+
+    private Entry(Identifier textureId) {
+      this.textureId = textureId;
+    }
+
+    Identifier textureId() {
+      return textureId;
+    }
+
+    /** Whether the texture is still registered. False once evicted or cleared. */
+    boolean isValid() {
+      return valid;
+    }
+
+    /** Record a use, protecting the texture from eviction for the grace period. */
+    void touch() {
+      lastUsedNanos = System.nanoTime();
+    }
+  }
+
+  private final int maxTextures;
+  private final Function<K, Identifier> textureIds;
+  private final ImageBuilder<K> builder;
+  private final Consumer<K> onEvict;
+
+  private final HashMap<K, Entry> textures = new HashMap<>();
+  private final LinkedHashSet<K> failed = new LinkedHashSet<>();
+
+  private long frameStartNanos;
+  private long frameBuildNanos;
+
+  /**
+   * @param maxTextures Maximum number of textures kept uploaded
+   * @param textureIds Assigns the identifier each key's texture is registered under
+   * @param builder Builds the image for a key, or returns null if it cannot be built
+   * @param onEvict Called with a key whose texture was evicted to make room
+   */
+  DynamicTextureCache(
+      int maxTextures,
+      Function<K, Identifier> textureIds,
+      ImageBuilder<K> builder,
+      Consumer<K> onEvict) {
+    this.maxTextures = maxTextures;
+    this.textureIds = textureIds;
+    this.builder = builder;
+    this.onEvict = onEvict;
+  }
+
+  /**
+   * Get the cache entry for a key, building and uploading its texture if needed. The entry is
+   * already touched.
+   *
+   * @return The entry, or null if the texture is unavailable
+   */
+  @Nullable
+  Entry getEntry(K key) {
+    Entry entry = textures.get(key);
+    if (entry != null) {
+      entry.touch();
+      TrimRenderStats.textureHit();
+      return entry;
+    }
+
+    TrimRenderStats.textureMiss();
+    long now = System.nanoTime();
+    if (now - frameStartNanos >= FRAME_NANOS) {
+      frameStartNanos = now;
+      frameBuildNanos = 0L;
+    }
+    if (frameBuildNanos >= BUILD_BUDGET_NANOS || failed.contains(key) || !makeRoom(now)) {
+      return null;
+    }
+
+    Identifier textureId = build(key);
+    frameBuildNanos += System.nanoTime() - now;
+    if (textureId == null) {
+      if (failed.size() >= MAX_FAILED) {
+        Iterator<K> oldest = failed.iterator();
+        oldest.next();
+        oldest.remove();
+      }
+      failed.add(key);
+      return null;
+    }
+
+    entry = new Entry(textureId);
+    entry.lastUsedNanos = now;
+    textures.put(key, entry);
+    return entry;
+  }
+
+  /** Destroy all textures and forget failed keys. Called on resource reload. */
+  void clear() {
+    TextureManager textureManager = MinecraftClient.getInstance().getTextureManager();
+    for (Entry entry : textures.values()) {
+      entry.valid = false;
+      textureManager.destroyTexture(entry.textureId);
+    }
+    textures.clear();
+    failed.clear();
+  }
+
+  /** Evict the least recently used entry if the cache is full. Returns false if none can go. */
+  private boolean makeRoom(long now) {
+    if (textures.size() < maxTextures) {
+      return true;
+    }
+
+    Map.Entry<K, Entry> eldest = null;
+    for (Map.Entry<K, Entry> candidate : textures.entrySet()) {
+      if (eldest == null || candidate.getValue().lastUsedNanos < eldest.getValue().lastUsedNanos) {
+        eldest = candidate;
+      }
+    }
+    if (eldest == null || now - eldest.getValue().lastUsedNanos < EVICTION_GRACE_NANOS) {
+      return false;
+    }
+
+    K key = eldest.getKey();
+    Entry entry = textures.remove(key);
+    entry.valid = false;
+    MinecraftClient.getInstance().getTextureManager().destroyTexture(entry.textureId);
+    onEvict.accept(key);
+    return true;
+  }
+
+  private @Nullable Identifier build(K key) {
+    MinecraftClient client = MinecraftClient.getInstance();
+    NativeImage image = null;
+    try {
+      image = builder.build(client.getResourceManager(), key);
+      if (image == null) {
+        return null;
+      }
+      Identifier textureId = textureIds.apply(key);
+      client
+          .getTextureManager()
+          .registerTexture(textureId, new NativeImageBackedTexture(textureId::toString, image));
+      return textureId;
+    } catch (IOException | RuntimeException e) {
+      ShulkerTrimsMod.LOGGER.warn("Failed to build trim texture for {}", key, e);
+      if (image != null) {
+        image.close();
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimComponent;
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimStorage;
+import net.minecraft.component.ComponentType;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.component.type.NbtComponent;
+import net.minecraft.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Parsed trims of rendered items, keyed by custom_data component identity. Items using the
+ * dedicated trim component need no parsing and skip the cache; items whose trim is still in
+ * custom_data are cached the same way whether or not the component is enabled.
+ *
+ * <p>Components are immutable and an unchanged stack keeps its component instance, so a screen full
+ * of trimmed shulkers resolves each trim with one identity comparison per frame instead of parsing
+ * and validating the NBT again. The cache is direct-mapped: a fixed number of slots, each
+ * overwritten by whichever component last hashed to it, so it never grows and holds at most a few
+ * hundred components alive. Only accessed from the render thread.
+ */
+public final class ItemTrimCache {
+  private ItemTrimCache() {}
+
+  /** Number of slots. Must be a power of two. */
+  private static final int SIZE = 256;
+
+  private static final NbtComponent[] COMPONENTS = new NbtComponent[SIZE];
+  private static final ShulkerTrim[] TRIMS = new ShulkerTrim[SIZE];
+
+  /**
+   * Read the trim from a shulker box item being rendered.
+   *
+   * @param stack The item stack to read from
+   * @return The trim, or null if no valid trim data found
+   */
+  @Nullable
+  public static ShulkerTrim readTrim(ItemStack stack) {
+    ComponentType<ShulkerTrim> trimType = ShulkerTrimComponent.type();
+    if (trimType != null) {
+      // The typed component already holds a parsed, canonical trim
+      ShulkerTrim trim = stack.get(trimType);
+      if (trim != null) {
+        return trim;
+      }
+    }
+
+    NbtComponent customData = stack.get(DataComponentTypes.CUSTOM_DATA);
+    if (customData == null) {
+      return null;
+    }
+
+    int hash = System.identityHashCode(customData);
+    int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+    if (COMPONENTS[slot] == customData) {
+      return TRIMS[slot];
+    }
+
+    ShulkerTrim trim = ShulkerTrimStorage.readTrim(customData);
+    COMPONENTS[slot] = customData;
+    TRIMS[slot] = trim;
+    return trim;
+  }
+}
@@ -1,95 +1,36 @@
 package com.wlritchi.shulkertrims.fabric.client;
 
 import com.wlritchi.shulkertrims.common.ShulkerTrim;
-import java.util.Map;
-import java.util.WeakHashMap;
-import net.minecraft.client.render.item.ItemRenderState;
 import org.jetbrains.annotations.Nullable;
 
 /**
  * Context for passing trim data through the item render pipeline.
  *
  * <p>The vanilla item rendering system doesn't pass ItemStack data to special model renderers
- * (ShulkerBoxModelRenderer ignores the stack entirely). This context bridges the gap by storing
- * trim data during ItemModelManager.update() and making it available during
- * ShulkerBoxModelRenderer.render().
+ * (ShulkerBoxModelRenderer ignores the stack entirely). The trim is captured onto the
+ * ItemRenderState during ItemModelManager.update() through {@link TrimmedItemRenderState}, and a
+ * layer publishes its state's trim here for the duration of its render call, which invokes
+ * ShulkerBoxModelRenderer.render() synchronously.
  *
- * <p>For GUI items, rendering is deferred, so we use a WeakHashMap keyed by ItemRenderState to
- * persist trim data until the actual render call. A thread-local tracks the current ItemRenderState
- * being rendered.
+ * <p>Items are only rendered on the render thread, so a plain field is enough.
  */
 public final class ItemTrimRenderContext {
   private ItemTrimRenderContext() {}
 
-  /**
-   * Map of ItemRenderState to trim data. Uses weak keys so entries are automatically cleaned up
-   * when ItemRenderState instances are garbage collected.
-   */
-  private static final Map<ItemRenderState, ShulkerTrim> TRIM_MAP = new WeakHashMap<>();
-
-  /**
-   * Thread-local tracking the current ItemRenderState being rendered. Set by LayerRenderStateMixin
-   * just before SpecialModelRenderer.render() is called.
-   */
-  private static final ThreadLocal<ItemRenderState> CURRENT_RENDER_STATE = new ThreadLocal<>();
+  /** Trim of the item layer currently being rendered, or null. */
+  private static @Nullable ShulkerTrim currentTrim;
 
   /**
-   * Store trim data for an ItemRenderState. Call this during ItemModelManager.update() when
-   * processing a trimmed shulker.
+   * Set the trim of the layer about to be rendered. Call this from LayerRenderState.render() before
+   * invoking special model render, and again with null after it returns.
    */
-  public static void setTrim(ItemRenderState state, @Nullable ShulkerTrim trim) {
-    if (trim != null) {
-      synchronized (TRIM_MAP) {
-        TRIM_MAP.put(state, trim);
-      }
-    } else {
-      synchronized (TRIM_MAP) {
-        TRIM_MAP.remove(state);
-      }
-    }
+  public static void setCurrentTrim(@Nullable ShulkerTrim trim) {
+    currentTrim = trim;
   }
 
-  /** Get trim data for an ItemRenderState without removing it. */
-  @Nullable
-  public static ShulkerTrim getTrim(ItemRenderState state) {
-    synchronized (TRIM_MAP) {
-      return TRIM_MAP.get(state);
-    }
-  }
-
-  /**
-   * Set the current ItemRenderState being rendered. Call this from LayerRenderState.render() before
-   * invoking special model render.
-   */
-  public static void setCurrentRenderState(@Nullable ItemRenderState state) {
-    if (state != null) {
-      CURRENT_RENDER_STATE.set(state);
-    } else {
-      CURRENT_RENDER_STATE.remove();
-    }
-  }
-
-  /** Get the current ItemRenderState being rendered. */
-  @Nullable
-  public static ItemRenderState getCurrentRenderState() {
-    return CURRENT_RENDER_STATE.get();
-  }
-
-  /**
-   * Get trim for the current render state (convenience method). Returns null if no current render
-   * state or no trim for that state.
-   */
+  /** Get the trim of the layer currently being rendered, or null if it has none. */
   @Nullable
   public static ShulkerTrim getCurrentTrim() {
-    ItemRenderState state = CURRENT_RENDER_STATE.get();
-    if (state == null) {
-      return null;
-    }
-    return getTrim(state);
-  }
-
-  /** Clear the current render state thread-local. */
-  public static void clearCurrentRenderState() {
-    CURRENT_RENDER_STATE.remove();
+    return currentTrim;
   }
 }
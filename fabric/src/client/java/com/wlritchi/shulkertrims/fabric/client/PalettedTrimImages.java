@@ -0,0 +1,191 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimsMod;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Builds trim images for composited box textures by applying a material's color palette to a
+ * grayscale pattern, the same mapping vanilla's paletted permutations atlas source performs for the
+ * overlay sprites: each color of the trim palette key is replaced by the material palette color at
+ * the same position.
+ *
+ * <p>Pattern textures span the whole shulker texture canvas, but most of it is transparent. Only
+ * the pattern's opaque bounds are paletted, found when the pattern is read, so resource pack
+ * replacements crop correctly too.
+ *
+ * <p>The palette key and each material's color mapping are parsed once and kept until the next
+ * resource reload, so building another trim only reads its pattern. Only used on the render thread.
+ */
+final class PalettedTrimImages {
+  private PalettedTrimImages() {}
+
+  private static final Identifier PALETTE_KEY =
+      Identifier.ofVanilla("textures/trims/color_palettes/trim_palette.png");
+
+  /** Opaque palette key colors (without alpha) by pixel index, or -1 for transparent pixels. */
+  private static int @Nullable [] paletteKey;
+
+  private static int paletteKeyWidth;
+
+  /** Key color to material color, by material palette texture. */
+  private static final Map<Identifier, Int2IntMap> COLOR_MAPS = new HashMap<>();
+
+  /** A paletted trim image and where it sits on the full texture canvas. */
+  record CroppedImage(NativeImage image, int x, int y, int canvasWidth, int canvasHeight)
+      implements AutoCloseable {
+    @Override
+    public void close() {
+      image.close();
+    }
+  }
+
+  /**
+   * Create the paletted image for a trim, covering only the pattern's opaque bounds.
+   *
+   * @return A new image owned by the caller, or null if a source texture is missing
+   */
+  static @Nullable CroppedImage createCropped(ResourceManager resources, ShulkerTrim trim)
+      throws IOException {
+    Int2IntMap colors = colorMap(resources, ShulkerTrimRenderer.getPaletteTextureId(trim));
+    if (colors == null) {
+      return null;
+    }
+    try (NativeImage pattern = read(resources, ShulkerTrimRenderer.getPatternTextureId(trim))) {
+      if (pattern == null) {
+        return null;
+      }
+
+      int minX = pattern.getWidth();
+      int minY = pattern.getHeight();
+      int maxX = -1;
+      int maxY = -1;
+      for (int y = 0; y < pattern.getHeight(); y++) {
+        for (int x = 0; x < pattern.getWidth(); x++) {
+          if ((pattern.getColorArgb(x, y) >>> 24) != 0) {
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+          }
+        }
+      }
+      if (maxX < 0) {
+        // Fully transparent pattern: keep a single pixel
+        minX = 0;
+        minY = 0;
+        maxX = 0;
+        maxY = 0;
+      }
+
+      NativeImage result = new NativeImage(maxX - minX + 1, maxY - minY + 1, true);
+      for (int y = minY; y <= maxY; y++) {
+        for (int x = minX; x <= maxX; x++) {
+          result.setColorArgb(x - minX, y - minY, applyPalette(colors, pattern.getColorArgb(x, y)));
+        }
+      }
+      return new CroppedImage(result, minX, minY, pattern.getWidth(), pattern.getHeight());
+    }
+  }
+
+  /** Forget the parsed palette key and color mappings. Called on resource reload. */
+  static void clear() {
+    paletteKey = null;
+    COLOR_MAPS.clear();
+  }
+
+  /**
+   * Get the mapping from palette key colors to a material's colors, reading the material's palette
+   * texture the first time.
+   *
+   * @return The mapping, or null if the palette key or material palette is missing
+   */
+  private static @Nullable Int2IntMap colorMap(ResourceManager resources, Identifier paletteId)
+      throws IOException {
+    Int2IntMap colors = COLOR_MAPS.get(paletteId);
+    if (colors != null) {
+      return colors;
+    }
+    int[] key = paletteKey(resources);
+    if (key == null) {
+      return null;
+    }
+    try (NativeImage palette = read(resources, paletteId)) {
+      if (palette == null) {
+        return null;
+      }
+      colors = buildColorMap(key, paletteKeyWidth, palette);
+    }
+    COLOR_MAPS.put(paletteId, colors);
+    return colors;
+  }
+
+  private static int @Nullable [] paletteKey(ResourceManager resources) throws IOException {
+    if (paletteKey != null) {
+      return paletteKey;
+    }
+    try (NativeImage image = read(resources, PALETTE_KEY)) {
+      if (image == null) {
+        return null;
+      }
+      int width = image.getWidth();
+      int[] key = new int[width * image.getHeight()];
+      for (int y = 0; y < image.getHeight(); y++) {
+        for (int x = 0; x < width; x++) {
+          int color = image.getColorArgb(x, y);
+          key[y * width + x] = (color >>> 24) != 0 ? color & 0xFFFFFF : -1;
+        }
+      }
+      paletteKeyWidth = width;
+      paletteKey = key;
+      return key;
+    }
+  }
+
+  /** Map each opaque palette key color to the material color at its position. */
+  private static Int2IntMap buildColorMap(int[] key, int keyWidth, NativeImage palette) {
+    Int2IntMap colors = new Int2IntOpenHashMap();
+    int width = Math.min(keyWidth, palette.getWidth());
+    int height = Math.min(key.length / keyWidth, palette.getHeight());
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int keyColor = key[y * keyWidth + x];
+        if (keyColor != -1) {
+          colors.put(keyColor, palette.getColorArgb(x, y));
+        }
+      }
+    }
+    return colors;
+  }
+
+  private static int applyPalette(Int2IntMap colors, int color) {
+    int alpha = color >>> 24;
+    if (alpha == 0) {
+      return color;
+    }
+    int mapped = colors.getOrDefault(color & 0xFFFFFF, color | 0xFF000000);
+    return (alpha * (mapped >>> 24) / 255) << 24 | (mapped & 0xFFFFFF);
+  }
+
+  static @Nullable NativeImage read(ResourceManager resources, Identifier id) throws IOException {
+    Optional<Resource> resource = resources.getResource(id);
+    if (resource.isEmpty()) {
+      ShulkerTrimsMod.LOGGER.debug("Missing trim source texture: {}", id);
+      return null;
+    }
+    try (InputStream stream = resource.get().getInputStream()) {
+      return NativeImage.read(stream);
+    }
+  }
+}
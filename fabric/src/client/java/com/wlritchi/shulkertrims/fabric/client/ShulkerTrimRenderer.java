@@ -1,7 +1,12 @@
 package com.wlritchi.shulkertrims.fabric.client;
 
 import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.TexturedRenderLayers;
+import net.minecraft.client.texture.MissingSprite;
+import net.minecraft.client.texture.Sprite;
 import net.minecraft.client.util.SpriteIdentifier;
 import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.Nullable;
@@ -10,6 +15,11 @@ import org.jetbrains.annotations.Nullable;
 public final class ShulkerTrimRenderer {
   private ShulkerTrimRenderer() {}
 
+  private static final int MAX_SPRITE_IDS = 1024;
+
+  /** Sprite identifiers by trim, so drawing a box doesn't allocate one. Render thread only. */
+  private static final Map<ShulkerTrim, SpriteIdentifier> SPRITE_IDS = new HashMap<>();
+
   /**
    * Get the texture identifier for a shulker trim sprite. The texture is located in the armor_trims
    * atlas with path: shulker_trims:trims/entity/shulker/{pattern}_{material}
@@ -35,6 +45,54 @@ public final class ShulkerTrimRenderer {
         TexturedRenderLayers.ARMOR_TRIMS_ATLAS_TEXTURE, getTrimTextureId(trim));
   }
 
+  /**
+   * Get the trim's sprite from the armor_trims atlas, where vanilla stitches each bundled pattern
+   * in each vanilla material palette.
+   *
+   * @param trim The trim data
+   * @return The sprite, or null if the atlas has none for this pattern and material
+   */
+  public static @Nullable Sprite getTrimSprite(ShulkerTrim trim) {
+    SpriteIdentifier spriteId = SPRITE_IDS.get(trim);
+    if (spriteId == null) {
+      spriteId = getTrimSpriteId(trim);
+      if (SPRITE_IDS.size() < MAX_SPRITE_IDS) {
+        SPRITE_IDS.put(trim, spriteId);
+      }
+    }
+    Sprite sprite = MinecraftClient.getInstance().getAtlasManager().getSprite(spriteId);
+    if (sprite == null || MissingSprite.getMissingSpriteId().equals(sprite.getContents().getId())) {
+      return null;
+    }
+    return sprite;
+  }
+
+  /**
+   * Get the grayscale pattern texture for a trim, located at
+   * shulker_trims:textures/trims/entity/shulker/{pattern}.png
+   *
+   * @param trim The trim data
+   * @return The texture identifier for the trim pattern
+   */
+  public static Identifier getPatternTextureId(ShulkerTrim trim) {
+    return Identifier.of(
+        "shulker_trims", "textures/trims/entity/shulker/" + getPath(trim.pattern()) + ".png");
+  }
+
+  /**
+   * Get the color palette texture for a trim's material, located at
+   * {namespace}:textures/trims/color_palettes/{material}.png like vanilla's armor trim palettes.
+   *
+   * @param trim The trim data
+   * @return The texture identifier for the material palette
+   */
+  public static Identifier getPaletteTextureId(ShulkerTrim trim) {
+    String material = trim.material();
+    int colonIndex = material.indexOf(':');
+    String namespace = colonIndex > 0 ? material.substring(0, colonIndex) : "minecraft";
+    return Identifier.of(namespace, "textures/trims/color_palettes/" + getPath(material) + ".png");
+  }
+
   /** Extract the path from a namespaced identifier string (e.g., "minecraft:wild" -> "wild") */
   private static String getPath(@Nullable String identifier) {
     if (identifier == null) {
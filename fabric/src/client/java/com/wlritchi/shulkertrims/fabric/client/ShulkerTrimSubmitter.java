@@ -0,0 +1,60 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.fabric.mixin.ShulkerBoxBlockEntityRendererAccessor;
+import net.minecraft.client.render.OverlayTexture;
+import net.minecraft.client.render.RenderLayer;
+import net.minecraft.client.render.block.entity.ShulkerBoxBlockEntityRenderer;
+import net.minecraft.client.render.command.ModelCommandRenderer;
+import net.minecraft.client.render.command.OrderedRenderCommandQueue;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.Direction;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Submits the shulker box model with a trim texture, for both placed boxes and items.
+ *
+ * <p>The model and pose come from the vanilla renderer through {@link
+ * ShulkerBoxBlockEntityRendererAccessor}, so each submission is a pair of direct calls.
+ */
+public final class ShulkerTrimSubmitter {
+  private ShulkerTrimSubmitter() {}
+
+  /**
+   * Submit the box model posed for the given facing and lid openness.
+   *
+   * @param renderer The vanilla renderer whose model and pose to use
+   * @param renderLayer The layer to draw with
+   * @param sprite The atlas sprite to remap the model's UVs into, or null if the layer binds a
+   *     standalone texture laid out like the box
+   * @param crumblingOverlay The block breaking overlay, or null
+   */
+  public static void submit(
+      ShulkerBoxBlockEntityRenderer renderer,
+      MatrixStack matrices,
+      OrderedRenderCommandQueue commandQueue,
+      Direction facing,
+      float openness,
+      RenderLayer renderLayer,
+      @Nullable Sprite sprite,
+      int light,
+      @Nullable ModelCommandRenderer.CrumblingOverlayCommand crumblingOverlay) {
+    ShulkerBoxBlockEntityRendererAccessor accessor =
+        (ShulkerBoxBlockEntityRendererAccessor) renderer;
+
+    matrices.push();
+    accessor.shulkerTrims$setTransforms(matrices, facing, openness);
+    commandQueue.submitModel(
+        accessor.shulkerTrims$getModel(),
+        openness,
+        matrices,
+        renderLayer,
+        light,
+        OverlayTexture.DEFAULT_UV,
+        -1, // white color (no tint)
+        sprite,
+        0, // render order
+        crumblingOverlay);
+    matrices.pop();
+  }
+}
@@ -1,7 +1,14 @@
 package com.wlritchi.shulkertrims.fabric.client;
 
 import com.wlritchi.shulkertrims.fabric.ShulkerTrimsMod;
+import com.wlritchi.shulkertrims.fabric.TrimRegistries;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.util.Identifier;
 
 public class ShulkerTrimsClient implements ClientModInitializer {
   @Override
@@ -11,6 +18,29 @@ public class ShulkerTrimsClient implements ClientModInitializer {
     // Register network handler for Paper server sync
     TrimSyncNetworkClient.register();
 
+    // Index trim IDs from the registries the server synced
+    ClientPlayConnectionEvents.JOIN.register(
+        (handler, sender, client) -> TrimRegistries.rebuild(handler.getRegistryManager()));
+
+    // Trim statistics section for the F3 debug HUD
+    TrimDebugHudEntry.register();
+
+    // Drop render caches built from the previous resource packs
+    ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES)
+        .registerReloadListener(
+            new SimpleSynchronousResourceReloadListener() {
+              @Override
+              public Identifier getFabricId() {
+                return Identifier.of(ShulkerTrimsMod.MOD_ID, "render_caches");
+              }
+
+              @Override
+              public void reload(ResourceManager manager) {
+                CompositeTrimTextures.clear();
+                PalettedTrimImages.clear();
+              }
+            });
+
     ShulkerTrimsMod.LOGGER.info("Shulker Trims client initialized");
   }
 }
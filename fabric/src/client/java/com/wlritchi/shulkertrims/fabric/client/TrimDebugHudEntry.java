@@ -0,0 +1,105 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimsMod;
+import java.util.List;
+import java.util.Locale;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.hud.debug.DebugHudEntries;
+import net.minecraft.client.gui.hud.debug.DebugHudEntry;
+import net.minecraft.client.gui.hud.debug.DebugHudLines;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * F3 debug HUD section with trim rendering and sync statistics, so players reporting frame drops
+ * can share real numbers. Enable it from the debug options screen (F3 + F6).
+ *
+ * <p>Rates are averaged over the last second and refreshed once a second, so the text is readable
+ * in a screenshot.
+ */
+public final class TrimDebugHudEntry implements DebugHudEntry {
+
+  public static final Identifier ID = Identifier.of(ShulkerTrimsMod.MOD_ID, "trims");
+
+  private static final long REFRESH_NANOS = 1_000_000_000L;
+
+  private long lastRefreshNanos;
+  private long lastCompositeBoxes;
+  private long lastOverlayBoxes;
+  private long lastItemOverlays;
+  private long lastTextureHits;
+  private long lastTextureMisses;
+  private long lastPayloadsApplied;
+  private long lastHookNanos;
+  private List<String> lines = List.of();
+
+  private TrimDebugHudEntry() {}
+
+  /** Register the debug entry and the tick hook that enables timing while the HUD is open. */
+  public static void register() {
+    DebugHudEntries.register(ID, new TrimDebugHudEntry());
+    ClientTickEvents.END_CLIENT_TICK.register(
+        client -> TrimRenderStats.timing = client.getDebugHud().shouldShowDebugHud());
+  }
+
+  @Override
+  public void render(
+      DebugHudLines lines,
+      @Nullable World world,
+      @Nullable WorldChunk clientChunk,
+      @Nullable WorldChunk chunk) {
+    long now = System.nanoTime();
+    if (now - lastRefreshNanos >= REFRESH_NANOS) {
+      refresh(now);
+    }
+    lines.addLinesToSection(ID, this.lines);
+  }
+
+  private void refresh(long now) {
+    double seconds = (now - lastRefreshNanos) / 1e9;
+    double frames = Math.max(1.0, MinecraftClient.getInstance().getCurrentFps() * seconds);
+
+    long composite = TrimRenderStats.compositeBoxes - lastCompositeBoxes;
+    long overlay = TrimRenderStats.overlayBoxes - lastOverlayBoxes;
+    long items = TrimRenderStats.itemOverlays - lastItemOverlays;
+    long hits = TrimRenderStats.textureHits - lastTextureHits;
+    long misses = TrimRenderStats.textureMisses - lastTextureMisses;
+    long applied = TrimRenderStats.payloadsApplied - lastPayloadsApplied;
+    long hookNanos = TrimRenderStats.hookNanos - lastHookNanos;
+
+    if (lastRefreshNanos != 0L) {
+      lines =
+          List.of(
+              String.format(
+                  Locale.ROOT,
+                  "Trimmed boxes: %.0f/frame (%.0f composite, %.0f overlay), items: %.0f/frame",
+                  (composite + overlay) / frames,
+                  composite / frames,
+                  overlay / frames,
+                  items / frames),
+              String.format(
+                  Locale.ROOT,
+                  "Trim textures: %.1f%% hits, %.0f misses/s",
+                  hits + misses == 0 ? 100.0 : 100.0 * hits / (hits + misses),
+                  misses / seconds),
+              String.format(Locale.ROOT, "Trim hooks: %.3f ms/frame", hookNanos / 1e6 / frames),
+              String.format(
+                  Locale.ROOT,
+                  "Trim sync: %d pending, %.1f applied/s",
+                  TrimSyncNetworkClient.pendingCount(),
+                  applied / seconds));
+    }
+
+    lastRefreshNanos = now;
+    lastCompositeBoxes = TrimRenderStats.compositeBoxes;
+    lastOverlayBoxes = TrimRenderStats.overlayBoxes;
+    lastItemOverlays = TrimRenderStats.itemOverlays;
+    lastTextureHits = TrimRenderStats.textureHits;
+    lastTextureMisses = TrimRenderStats.textureMisses;
+    lastPayloadsApplied = TrimRenderStats.payloadsApplied;
+    lastHookNanos = TrimRenderStats.hookNanos;
+  }
+}
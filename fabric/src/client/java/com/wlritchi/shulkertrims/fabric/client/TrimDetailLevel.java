@@ -0,0 +1,48 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimsConfig;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Distance-based level of detail for trim overlays on placed shulker boxes.
+ *
+ * <p>Past a few dozen blocks the trim texture is sub-pixel noise, but each overlay still costs a
+ * full model submission. Boxes beyond {@link ShulkerTrimsConfig#trimDetailDistance()} skip it.
+ * Boxes drawn with a composited texture keep their trim at any distance, since it costs nothing
+ * extra.
+ *
+ * <p>The overlay uses vanilla's cutout armor trim layer, which cannot alpha blend, so the fade band
+ * staggers the cutoff per box instead: each box gets a fixed cutoff somewhere in the band, derived
+ * from its position. Trims thin out gradually across the band rather than vanishing along a single
+ * ring, and a given box never flickers as the camera moves.
+ */
+public final class TrimDetailLevel {
+  private TrimDetailLevel() {}
+
+  /**
+   * Whether the trim on a box at the given position should be drawn.
+   *
+   * @param pos The block position of the shulker box
+   * @param cameraPos The camera position
+   * @return True if the box is within its trim detail distance
+   */
+  public static boolean shouldRenderTrim(BlockPos pos, Vec3d cameraPos) {
+    double maxDistance = ShulkerTrimsConfig.trimDetailDistance();
+    if (maxDistance <= 0) {
+      return true;
+    }
+
+    double cutoff = maxDistance;
+    double fade = ShulkerTrimsConfig.trimDetailFade();
+    if (fade > 0) {
+      long hash = MathHelper.hashCode(pos.getX(), pos.getY(), pos.getZ());
+      double offset = ((hash >>> 16) & 0xFFFF) / 65536.0;
+      cutoff -= Math.min(fade, maxDistance) * offset;
+    }
+
+    return cameraPos.squaredDistanceTo(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5)
+        <= cutoff * cutoff;
+  }
+}
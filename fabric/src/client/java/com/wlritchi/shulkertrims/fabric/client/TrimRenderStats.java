@@ -0,0 +1,66 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+/**
+ * Running counters for trim rendering and sync, shown by {@link TrimDebugHudEntry}.
+ *
+ * <p>Counters only ever increase; the debug entry turns them into per-second and per-frame rates.
+ * Counting is a field increment, so it is always on, but hook timing calls {@link System#nanoTime}
+ * and only runs while the debug HUD is open. Only accessed from the render thread.
+ */
+public final class TrimRenderStats {
+  private TrimRenderStats() {}
+
+  /** Whether hook timing is enabled. Updated once per client tick. */
+  static boolean timing;
+
+  static long compositeBoxes;
+  static long overlayBoxes;
+  static long itemOverlays;
+  static long textureHits;
+  static long textureMisses;
+  static long payloadsApplied;
+  static long hookNanos;
+
+  /** Count a placed box drawn in one pass with a composited texture. */
+  public static void compositeBox() {
+    compositeBoxes++;
+  }
+
+  /** Count a placed box drawn with a separate trim overlay. */
+  public static void overlayBox() {
+    overlayBoxes++;
+  }
+
+  /** Count a trim overlay submitted for an item. */
+  public static void itemOverlay() {
+    itemOverlays++;
+  }
+
+  static void textureHit() {
+    textureHits++;
+  }
+
+  static void textureMiss() {
+    textureMisses++;
+  }
+
+  static void payloadsApplied(int count) {
+    payloadsApplied += count;
+  }
+
+  /**
+   * Start timing a render hook.
+   *
+   * @return The start time to pass to {@link #endHook}, or 0 if timing is off
+   */
+  public static long startHook() {
+    return timing ? System.nanoTime() : 0L;
+  }
+
+  /** Finish timing a render hook started with {@link #startHook}. */
+  public static void endHook(long start) {
+    if (start != 0L) {
+      hookNanos += System.nanoTime() - start;
+    }
+  }
+}
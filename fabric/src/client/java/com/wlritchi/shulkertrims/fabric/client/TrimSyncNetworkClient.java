@@ -1,57 +1,342 @@
 package com.wlritchi.shulkertrims.fabric.client;
 
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
 import com.wlritchi.shulkertrims.fabric.ShulkerTrimsMod;
+import com.wlritchi.shulkertrims.fabric.TrimmedShulkerBox;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientBlockEntityEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientChunkEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.networking.v1.C2SPlayChannelEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ServerInfo;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Handles receiving trim sync packets from Paper servers.
  *
- * <p>The actual packet reception is handled by mixins on CustomPayloadS2CPacket, because Fabric's
- * networking API only works with Fabric servers for the handler callback. However, we still use
- * Fabric's API to register the channel, which tells the server we want to receive packets on this
- * channel.
+ * <p>Received trims are queued and applied together once per client tick. A trim for a shulker box
+ * whose block entity hasn't arrived yet (the packet beat the chunk) is held per chunk until the
+ * block entity loads, and discarded if the chunk unloads first. Everything here runs on the client
+ * thread, which is where Fabric delivers payloads.
+ *
+ * <p>If the server accepts chunk hashes, trims are also kept in a {@link ChunkTrimCache} per server
+ * and world. Each arriving chunk gets its cached trims straight away and reports their hash, and
+ * the server only sends the chunk's trims again if they differ. Caches are loaded and saved on
+ * Minecraft's I/O worker. Chunks that arrive while their world's cache loads are reported once it
+ * has loaded, and trims received meanwhile only reach the block entities; any difference shows up
+ * in the chunk's reported hash, so the server resends the chunk.
  */
 public class TrimSyncNetworkClient {
 
+  /** Most trims held for one chunk that hasn't loaded its block entities yet. */
+  private static final int MAX_PENDING_PER_CHUNK = 4096;
+
+  /** Most chunks with pending trims, in case the server sends trims for chunks we never load. */
+  private static final int MAX_PENDING_CHUNKS = 1024;
+
+  /** Trims received since the last tick, in arrival order. */
+  private static final List<TrimSyncPayload> RECEIVED = new ArrayList<>();
+
+  /**
+   * Trims waiting for their block entity, by chunk and then block position. A null trim removes the
+   * box's trim.
+   */
+  private static final Long2ObjectMap<Long2ObjectMap<ShulkerTrim>> PENDING =
+      new Long2ObjectOpenHashMap<>();
+
+  /** Chunks loaded in the current world, so they can be reported once the server accepts hashes. */
+  private static final LongSet LOADED_CHUNKS = new LongOpenHashSet();
+
+  /** World the trim cache belongs to. */
+  private static @Nullable ClientWorld cacheWorld;
+
+  /** The trim cache for {@link #cacheWorld}, or null while it loads. */
+  private static @Nullable ChunkTrimCache cache;
+
+  /** Loaded chunks whose hash report waits for the cache to load. */
+  private static final LongSet DEFERRED_REPORTS = new LongOpenHashSet();
+
+  /**
+   * The latest cache load or save. Each starts after the previous one finishes, so a world's cache
+   * is never read while it is still being written.
+   */
+  private static CompletableFuture<?> cacheIo = CompletableFuture.completedFuture(null);
+
   public static void register() {
     // Register the payload type - this is needed for both encoding/decoding
     // AND for telling the server we accept this channel
     PayloadTypeRegistry.playS2C().register(TrimSyncPayload.ID, TrimSyncPayload.CODEC);
 
-    // Register a receiver with Fabric API - this triggers channel registration with the server
-    // The actual handling is done by our mixin, but this ensures the server knows we listen
+    // Register a receiver with Fabric API - this triggers channel registration with the server,
+    // and queues each received trim for the next tick
+    ClientPlayNetworking.registerGlobalReceiver(
+        TrimSyncPayload.ID, (payload, context) -> RECEIVED.add(payload));
+
+    // Registering the chunk channel tells the server we report chunk hashes
+    PayloadTypeRegistry.playS2C().register(ChunkTrimsPayload.ID, ChunkTrimsPayload.CODEC);
+    PayloadTypeRegistry.playC2S().register(ChunkTrimHashPayload.ID, ChunkTrimHashPayload.CODEC);
     ClientPlayNetworking.registerGlobalReceiver(
-        TrimSyncPayload.ID,
-        (payload, context) -> {
-          // This won't be called for Paper servers (mixin handles it),
-          // but it WILL be called for Fabric servers, so handle both cases
-          ShulkerTrimsMod.LOGGER.info(
-              "Received trim sync via Fabric API at ({}, {}, {})",
-              payload.x(),
-              payload.y(),
-              payload.z());
-
-          context
-              .client()
-              .execute(
-                  () -> {
-                    var world = context.client().world;
-                    if (world == null) return;
-
-                    var pos =
-                        new net.minecraft.util.math.BlockPos(payload.x(), payload.y(), payload.z());
-                    var blockEntity = world.getBlockEntity(pos);
-
-                    if (blockEntity instanceof net.minecraft.block.entity.ShulkerBoxBlockEntity
-                        && blockEntity
-                            instanceof com.wlritchi.shulkertrims.fabric.TrimmedShulkerBox trimmed) {
-                      trimmed.shulkerTrims$setTrim(payload.trim());
-                      ShulkerTrimsMod.LOGGER.info("Applied trim at {}: {}", pos, payload.trim());
-                    }
-                  });
+        ChunkTrimsPayload.ID, (payload, context) -> applyChunk(context.client().world, payload));
+
+    ClientTickEvents.END_CLIENT_TICK.register(TrimSyncNetworkClient::applyReceived);
+    ClientBlockEntityEvents.BLOCK_ENTITY_LOAD.register(
+        (blockEntity, world) -> applyPending(blockEntity));
+    ClientChunkEvents.CHUNK_LOAD.register(
+        (world, chunk) -> {
+          LOADED_CHUNKS.add(chunk.getPos().toLong());
+          reportChunk(world, chunk);
+        });
+    ClientChunkEvents.CHUNK_UNLOAD.register(
+        (world, chunk) -> {
+          LOADED_CHUNKS.remove(chunk.getPos().toLong());
+          DEFERRED_REPORTS.remove(chunk.getPos().toLong());
+          PENDING.remove(chunk.getPos().toLong());
+        });
+    C2SPlayChannelEvents.REGISTER.register(
+        (handler, sender, client, channels) -> {
+          // Chunks may have arrived before the server announced its channels
+          if (channels.contains(ChunkTrimHashPayload.CHANNEL_ID) && client.world != null) {
+            LongIterator chunks = LOADED_CHUNKS.iterator();
+            while (chunks.hasNext()) {
+              long chunk = chunks.nextLong();
+              reportChunk(
+                  client.world,
+                  client.world.getChunk(ChunkPos.getPackedX(chunk), ChunkPos.getPackedZ(chunk)));
+            }
+          }
+        });
+    ClientPlayConnectionEvents.DISCONNECT.register(
+        (handler, client) -> {
+          RECEIVED.clear();
+          PENDING.clear();
+          LOADED_CHUNKS.clear();
+          retireCache();
         });
 
     ShulkerTrimsMod.LOGGER.info("Trim sync channel registered");
   }
+
+  /** Number of received trims not yet applied, for the debug HUD. */
+  static int pendingCount() {
+    int count = RECEIVED.size();
+    for (Long2ObjectMap<ShulkerTrim> trims : PENDING.values()) {
+      count += trims.size();
+    }
+    return count;
+  }
+
+  /** Apply every trim received since the last tick, holding back those without a block entity. */
+  private static void applyReceived(MinecraftClient client) {
+    if (RECEIVED.isEmpty()) {
+      return;
+    }
+
+    ClientWorld world = client.world;
+    if (world == null) {
+      RECEIVED.clear();
+      return;
+    }
+
+    ChunkTrimCache worldCache = cacheFor(world);
+    for (TrimSyncPayload payload : RECEIVED) {
+      BlockPos pos = new BlockPos(payload.x(), payload.y(), payload.z());
+      if (worldCache != null) {
+        worldCache.put(pos, payload.trim());
+      }
+      BlockEntity blockEntity = world.getBlockEntity(pos);
+      if (blockEntity instanceof TrimmedShulkerBox trimmed) {
+        trimmed.shulkerTrims$setTrim(payload.trim());
+      } else if (blockEntity == null) {
+        hold(pos, payload.trim());
+      }
+    }
+    ShulkerTrimsMod.LOGGER.debug("Applied {} received trim(s)", RECEIVED.size());
+    TrimRenderStats.payloadsApplied(RECEIVED.size());
+    RECEIVED.clear();
+  }
+
+  /** Apply cached trims to a newly arrived chunk and report their hash to the server. */
+  private static void reportChunk(ClientWorld world, WorldChunk chunk) {
+    if (!ClientPlayNetworking.canSend(ChunkTrimHashPayload.ID)) {
+      return;
+    }
+
+    ChunkTrimCache worldCache = cacheFor(world);
+    ChunkPos chunkPos = chunk.getPos();
+    if (worldCache == null) {
+      DEFERRED_REPORTS.add(chunkPos.toLong());
+      return;
+    }
+    Long2ObjectMap<ShulkerTrim> trims = worldCache.get(chunkPos.toLong());
+    if (trims != null) {
+      for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+        if (blockEntity instanceof TrimmedShulkerBox trimmed) {
+          ShulkerTrim trim = trims.get(blockEntity.getPos().asLong());
+          if (trim != null) {
+            trimmed.shulkerTrims$setTrim(trim);
+          }
+        }
+      }
+    }
+
+    ClientPlayNetworking.send(
+        new ChunkTrimHashPayload(chunkPos.x, chunkPos.z, worldCache.hash(chunkPos.toLong())));
+  }
+
+  /**
+   * Apply the server's full trim list for a chunk whose cached hash didn't match, clearing trims
+   * the server no longer has.
+   */
+  private static void applyChunk(@Nullable ClientWorld world, ChunkTrimsPayload payload) {
+    if (world == null) {
+      return;
+    }
+
+    long chunkPos = ChunkPos.toLong(payload.chunkX(), payload.chunkZ());
+    ChunkTrimCache worldCache = cacheFor(world);
+    if (worldCache != null) {
+      worldCache.replace(chunkPos, payload.trims());
+    }
+    TrimRenderStats.payloadsApplied(1);
+    if (!LOADED_CHUNKS.contains(chunkPos)) {
+      // Applied from the cache when the chunk arrives
+      return;
+    }
+
+    WorldChunk chunk = world.getChunk(payload.chunkX(), payload.chunkZ());
+    for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+      if (blockEntity instanceof TrimmedShulkerBox trimmed) {
+        trimmed.shulkerTrims$setTrim(payload.trims().get(blockEntity.getPos().asLong()));
+      }
+    }
+  }
+
+  /**
+   * The trim cache for a world, or null while it loads. When the world changes, the previous
+   * world's cache is saved and the new one starts loading.
+   */
+  private static @Nullable ChunkTrimCache cacheFor(ClientWorld world) {
+    if (cacheWorld != world) {
+      retireCache();
+      cacheWorld = world;
+      Path file = cacheFile(world);
+      CompletableFuture<ChunkTrimCache> loading =
+          cacheIo.thenApplyAsync(previous -> ChunkTrimCache.load(file), Util.getIoWorkerExecutor());
+      cacheIo = loading;
+      loading.thenAcceptAsync(loaded -> cacheLoaded(world, loaded), MinecraftClient.getInstance());
+    }
+    return cache;
+  }
+
+  /** Start using a loaded cache, and report the chunks that arrived while it loaded. */
+  private static void cacheLoaded(ClientWorld world, ChunkTrimCache loaded) {
+    if (cacheWorld != world) {
+      // Left the world before its cache loaded; it hasn't changed, so there is nothing to save
+      return;
+    }
+    cache = loaded;
+    long[] chunks = DEFERRED_REPORTS.toLongArray();
+    DEFERRED_REPORTS.clear();
+    for (long chunk : chunks) {
+      reportChunk(world, world.getChunk(ChunkPos.getPackedX(chunk), ChunkPos.getPackedZ(chunk)));
+    }
+  }
+
+  /** Stop using the current cache, saving it in the background. */
+  private static void retireCache() {
+    ChunkTrimCache retired = cache;
+    cache = null;
+    cacheWorld = null;
+    DEFERRED_REPORTS.clear();
+    if (retired != null) {
+      cacheIo = cacheIo.thenRunAsync(retired::save, Util.getIoWorkerExecutor());
+    }
+  }
+
+  /**
+   * Where a world's trim cache is stored, or null to keep it in memory only. Caches are kept per
+   * server address and dimension, since that is all a client knows about which world it is in.
+   */
+  private static @Nullable Path cacheFile(ClientWorld world) {
+    ServerInfo server = MinecraftClient.getInstance().getCurrentServerEntry();
+    if (server == null) {
+      return null;
+    }
+    Identifier dimension = world.getRegistryKey().getValue();
+    return FabricLoader.getInstance()
+        .getGameDir()
+        .resolve(ShulkerTrimsMod.MOD_ID)
+        .resolve("trim_cache")
+        .resolve(sanitize(server.address))
+        .resolve(sanitize(dimension.getNamespace()))
+        .resolve(sanitize(dimension.getPath()) + ".bin");
+  }
+
+  private static String sanitize(String name) {
+    return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9._-]", "_");
+  }
+
+  /** Hold a trim until its block entity loads, dropping it if the buffer is full. */
+  private static void hold(BlockPos pos, @Nullable ShulkerTrim trim) {
+    long chunk = ChunkTrimCache.chunkOf(pos);
+    Long2ObjectMap<ShulkerTrim> trims = PENDING.get(chunk);
+    if (trims == null) {
+      if (PENDING.size() >= MAX_PENDING_CHUNKS) {
+        ShulkerTrimsMod.LOGGER.debug("Dropping trim at {}: too many chunks pending", pos);
+        return;
+      }
+      trims = new Long2ObjectOpenHashMap<>();
+      PENDING.put(chunk, trims);
+    }
+
+    long key = pos.asLong();
+    if (trims.size() >= MAX_PENDING_PER_CHUNK && !trims.containsKey(key)) {
+      ShulkerTrimsMod.LOGGER.debug("Dropping trim at {}: too many trims pending in chunk", pos);
+      return;
+    }
+    trims.put(key, trim);
+  }
+
+  /** Apply a held trim to a shulker box block entity as it loads. */
+  private static void applyPending(BlockEntity blockEntity) {
+    if (PENDING.isEmpty() || !(blockEntity instanceof TrimmedShulkerBox trimmed)) {
+      return;
+    }
+
+    BlockPos pos = blockEntity.getPos();
+    long chunk = ChunkTrimCache.chunkOf(pos);
+    Long2ObjectMap<ShulkerTrim> trims = PENDING.get(chunk);
+    if (trims == null) {
+      return;
+    }
+
+    long key = pos.asLong();
+    if (trims.containsKey(key)) {
+      trimmed.shulkerTrims$setTrim(trims.remove(key));
+      if (trims.isEmpty()) {
+        PENDING.remove(chunk);
+      }
+    }
+  }
 }
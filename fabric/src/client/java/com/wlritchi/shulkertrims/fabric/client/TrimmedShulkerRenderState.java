@@ -1,6 +1,7 @@
 package com.wlritchi.shulkertrims.fabric.client;
 
 import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.Nullable;
 
 /** Duck interface to add trim data to ShulkerBoxBlockEntityRenderState. */
@@ -9,4 +10,10 @@ public interface TrimmedShulkerRenderState {
   ShulkerTrim shulkerTrims$getTrim();
 
   void shulkerTrims$setTrim(@Nullable ShulkerTrim trim);
+
+  /** Box texture with the trim composited in, or null to draw the trim as an overlay. */
+  @Nullable
+  Identifier shulkerTrims$getCompositeTexture();
+
+  void shulkerTrims$setCompositeTexture(@Nullable Identifier texture);
 }
@@ -1,8 +1,8 @@
 package com.wlritchi.shulkertrims.fabric.mixin;
 
 import com.wlritchi.shulkertrims.common.ShulkerTrim;
-import com.wlritchi.shulkertrims.fabric.ShulkerTrimStorage;
-import com.wlritchi.shulkertrims.fabric.client.ItemTrimRenderContext;
+import com.wlritchi.shulkertrims.fabric.client.ItemTrimCache;
+import com.wlritchi.shulkertrims.fabric.client.TrimmedItemRenderState;
 import net.minecraft.block.ShulkerBoxBlock;
 import net.minecraft.client.item.ItemModelManager;
 import net.minecraft.client.render.item.ItemRenderState;
@@ -24,10 +24,8 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
  * Mixin to capture trim data from shulker box items during render state update.
  *
  * <p>The vanilla item rendering pipeline doesn't pass ItemStack data to special model renderers.
- * This mixin captures trim data and stores it keyed by ItemRenderState so
- * ShulkerBoxModelRendererMixin can access it during render.
- *
- * <p>Uses a WeakHashMap to handle deferred rendering (GUI items) where the render happens later
+ * This mixin captures trim data onto the ItemRenderState itself so ShulkerBoxModelRendererMixin can
+ * access it during render, including deferred rendering (GUI items) where the render happens later
  * than the update call.
  *
  * <p>Also adds trim to the model key for KeyedItemRenderState so that GUI caching properly
@@ -37,16 +35,17 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 public class ItemModelManagerMixin {
 
   /**
-   * Capture trim data at HEAD of update methods. Stores the trim keyed by the ItemRenderState for
-   * later retrieval.
+   * Capture trim data at HEAD of update methods. Stores the trim on the ItemRenderState for later
+   * retrieval, clearing any trim left from a previous item.
    */
   @Unique
   private static void shulkerTrims$captureTrim(ItemRenderState state, ItemStack stack) {
+    ShulkerTrim trim = null;
     if (stack.getItem() instanceof BlockItem blockItem
         && blockItem.getBlock() instanceof ShulkerBoxBlock) {
-      ShulkerTrim trim = ShulkerTrimStorage.readTrimFromItem(stack);
-      ItemTrimRenderContext.setTrim(state, trim);
+      trim = ItemTrimCache.readTrim(stack);
     }
+    ((TrimmedItemRenderState) state).shulkerTrims$setTrim(trim);
   }
 
   /**
@@ -56,7 +55,7 @@ public class ItemModelManagerMixin {
   @Unique
   private static void shulkerTrims$addTrimToModelKey(ItemRenderState state) {
     if (state instanceof KeyedItemRenderState keyedState) {
-      ShulkerTrim trim = ItemTrimRenderContext.getTrim(state);
+      ShulkerTrim trim = ((TrimmedItemRenderState) state).shulkerTrims$getTrim();
       if (trim != null) {
         keyedState.addModelKey(trim);
       }
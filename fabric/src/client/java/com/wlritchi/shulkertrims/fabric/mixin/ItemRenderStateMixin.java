@@ -0,0 +1,28 @@
+package com.wlritchi.shulkertrims.fabric.mixin;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.fabric.client.TrimmedItemRenderState;
+import net.minecraft.client.render.item.ItemRenderState;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Mixin to add trim data storage to ItemRenderState. GUI items are rendered after the frame's
+ * updates from retained render states, so the trim has to live on the state itself.
+ */
+@Mixin(ItemRenderState.class)
+public class ItemRenderStateMixin implements TrimmedItemRenderState {
+
+  @Unique private @Nullable ShulkerTrim shulkerTrims$trim;
+
+  @Override
+  public @Nullable ShulkerTrim shulkerTrims$getTrim() {
+    return this.shulkerTrims$trim;
+  }
+
+  @Override
+  public void shulkerTrims$setTrim(@Nullable ShulkerTrim trim) {
+    this.shulkerTrims$trim = trim;
+  }
+}
@@ -1,6 +1,7 @@
 package com.wlritchi.shulkertrims.fabric.mixin;
 
 import com.wlritchi.shulkertrims.fabric.client.ItemTrimRenderContext;
+import com.wlritchi.shulkertrims.fabric.client.TrimmedItemRenderState;
 import net.minecraft.client.render.command.OrderedRenderCommandQueue;
 import net.minecraft.client.render.item.ItemRenderState;
 import net.minecraft.client.util.math.MatrixStack;
@@ -12,38 +13,38 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
- * Mixin to track the current ItemRenderState during layer rendering.
+ * Mixin to publish the parent ItemRenderState's trim during layer rendering.
  *
- * <p>This sets a thread-local with the parent ItemRenderState before the
- * SpecialModelRenderer.render() call, so ShulkerBoxModelRendererMixin can look up trim data for the
- * correct ItemRenderState.
+ * <p>This sets the current trim before the SpecialModelRenderer.render() call, so
+ * ShulkerBoxModelRendererMixin draws the trim of the item actually being rendered.
  */
 @Mixin(targets = "net.minecraft.client.render.item.ItemRenderState$LayerRenderState")
 public class LayerRenderStateMixin {
 
   @Shadow @Final ItemRenderState field_55345; // Parent ItemRenderState
 
-  /** Set the current render state before the render method processes special models. */
+  /** Set the current trim before the render method processes special models. */
   @Inject(method = "render", at = @At("HEAD"))
-  private void shulkerTrims$setCurrentRenderState(
+  private void shulkerTrims$setCurrentTrim(
       MatrixStack matrices,
       OrderedRenderCommandQueue commandQueue,
       int light,
       int overlay,
       int color,
       CallbackInfo ci) {
-    ItemTrimRenderContext.setCurrentRenderState(this.field_55345);
+    ItemTrimRenderContext.setCurrentTrim(
+        ((TrimmedItemRenderState) this.field_55345).shulkerTrims$getTrim());
   }
 
-  /** Clear the current render state after render completes. */
+  /** Clear the current trim after render completes. */
   @Inject(method = "render", at = @At("RETURN"))
-  private void shulkerTrims$clearCurrentRenderState(
+  private void shulkerTrims$clearCurrentTrim(
       MatrixStack matrices,
       OrderedRenderCommandQueue commandQueue,
       int light,
       int overlay,
       int color,
       CallbackInfo ci) {
-    ItemTrimRenderContext.clearCurrentRenderState();
+    ItemTrimRenderContext.setCurrentTrim(null);
   }
 }
@@ -3,6 +3,7 @@ package com.wlritchi.shulkertrims.fabric.mixin;
 import com.wlritchi.shulkertrims.common.ShulkerTrim;
 import com.wlritchi.shulkertrims.fabric.client.TrimmedShulkerRenderState;
 import net.minecraft.client.render.block.entity.state.ShulkerBoxBlockEntityRenderState;
+import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
@@ -12,6 +13,7 @@ import org.spongepowered.asm.mixin.Unique;
 public class ShulkerBoxBlockEntityRenderStateMixin implements TrimmedShulkerRenderState {
 
   @Unique private @Nullable ShulkerTrim shulkerTrims$trim;
+  @Unique private @Nullable Identifier shulkerTrims$compositeTexture;
 
   @Override
   public @Nullable ShulkerTrim shulkerTrims$getTrim() {
@@ -22,4 +24,14 @@ public class ShulkerBoxBlockEntityRenderStateMixin implements TrimmedShulkerRend
   public void shulkerTrims$setTrim(@Nullable ShulkerTrim trim) {
     this.shulkerTrims$trim = trim;
   }
+
+  @Override
+  public @Nullable Identifier shulkerTrims$getCompositeTexture() {
+    return this.shulkerTrims$compositeTexture;
+  }
+
+  @Override
+  public void shulkerTrims$setCompositeTexture(@Nullable Identifier texture) {
+    this.shulkerTrims$compositeTexture = texture;
+  }
 }
@@ -0,0 +1,20 @@
+package com.wlritchi.shulkertrims.fabric.mixin;
+
+import net.minecraft.client.model.Model;
+import net.minecraft.client.render.block.entity.ShulkerBoxBlockEntityRenderer;
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.Direction;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+/** Accessors for the box model and pose a shulker box renderer draws with. */
+@Mixin(ShulkerBoxBlockEntityRenderer.class)
+public interface ShulkerBoxBlockEntityRendererAccessor {
+  /** The model field's declared type is a package-private nested class, so expose its supertype. */
+  @Accessor("model")
+  Model<Float> shulkerTrims$getModel();
+
+  @Invoker("setTransforms")
+  void shulkerTrims$setTransforms(MatrixStack matrices, Direction facing, float openness);
+}
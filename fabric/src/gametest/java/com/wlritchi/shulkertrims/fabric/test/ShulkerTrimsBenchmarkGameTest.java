@@ -0,0 +1,271 @@
+package com.wlritchi.shulkertrims.fabric.test;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimStorage;
+import com.wlritchi.shulkertrims.fabric.TrimmedShulkerBox;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.fabricmc.fabric.api.gametest.v1.GameTest;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BarrelBlockEntity;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.block.entity.LootableContainerBlockEntity;
+import net.minecraft.block.entity.ShulkerBoxBlockEntity;
+import net.minecraft.component.ComponentMap;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.component.type.NbtComponent;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.test.TestContext;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark for the chunk I/O cost our block entity mixins add.
+ *
+ * <p>Builds chunk-sized columns of block entities and times the per-block-entity work the chunk
+ * serializer and chunk sender do: saving ({@code createNbtWithIdentifyingData}), loading ({@code
+ * createFromNbt}, which runs {@code readData}), the first and cached {@code shulkerTrims$getTrim},
+ * and {@code toInitialChunkDataNbt}. Mixins can't be disabled within one JVM, so barrels (the
+ * closest vanilla container, with the same 27-slot inventory) serve as the vanilla baseline.
+ *
+ * <p>Skipped unless enabled, since it is far slower than the correctness tests:
+ *
+ * <pre>
+ * ./gradlew :fabric:runGameTest -Dshulker_trims.benchmark=true
+ * </pre>
+ *
+ * <p>Optional properties: {@code shulker_trims.benchmark.count} (block entities per variant,
+ * default 4096, i.e. 16 full chunk sections), {@code shulker_trims.benchmark.rounds} (measured
+ * rounds, default 10) and {@code shulker_trims.benchmark.output} (JSON report path).
+ */
+public class ShulkerTrimsBenchmarkGameTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("ShulkerTrimsBenchmark");
+
+  private static final String ENABLED_PROPERTY = "shulker_trims.benchmark";
+  private static final String COUNT_PROPERTY = "shulker_trims.benchmark.count";
+  private static final String ROUNDS_PROPERTY = "shulker_trims.benchmark.rounds";
+  private static final String OUTPUT_PROPERTY = "shulker_trims.benchmark.output";
+
+  private static final int WARMUP_ROUNDS = 3;
+
+  private static final List<String> PATTERNS =
+      List.of(
+          "minecraft:sentry",
+          "minecraft:dune",
+          "minecraft:coast",
+          "minecraft:wild",
+          "minecraft:ward",
+          "minecraft:eye",
+          "minecraft:vex",
+          "minecraft:tide",
+          "minecraft:snout",
+          "minecraft:rib",
+          "minecraft:spire",
+          "minecraft:wayfinder",
+          "minecraft:shaper",
+          "minecraft:silence",
+          "minecraft:raiser",
+          "minecraft:host",
+          "minecraft:flow",
+          "minecraft:bolt");
+
+  private static final List<String> MATERIALS =
+      List.of(
+          "minecraft:quartz",
+          "minecraft:iron",
+          "minecraft:netherite",
+          "minecraft:redstone",
+          "minecraft:copper",
+          "minecraft:gold",
+          "minecraft:emerald",
+          "minecraft:diamond",
+          "minecraft:lapis",
+          "minecraft:amethyst",
+          "minecraft:resin");
+
+  private enum Variant {
+    VANILLA_BARREL("vanilla_barrel"),
+    UNTRIMMED_SHULKER("untrimmed_shulker"),
+    TRIMMED_SHULKER("trimmed_shulker");
+
+    private final String id;
+
+    Variant(String id) {
+      this.id = id;
+    }
+  }
+
+  /** Prevents the JIT from eliminating benchmarked work whose results are otherwise unused. */
+  private static long blackhole;
+
+  @GameTest
+  public void benchmarkChunkBlockEntityIo(TestContext context) {
+    if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+      LOGGER.info("Skipping chunk I/O benchmark (enable with -D{}=true)", ENABLED_PROPERTY);
+      context.complete();
+      return;
+    }
+
+    int count = Integer.getInteger(COUNT_PROPERTY, 4096);
+    int rounds = Integer.getInteger(ROUNDS_PROPERTY, 10);
+    RegistryWrapper.WrapperLookup registries = context.getWorld().getRegistryManager();
+
+    JsonObject variants = new JsonObject();
+    for (Variant variant : Variant.values()) {
+      LOGGER.info("Benchmarking {} x{} for {} rounds", variant.id, count, rounds);
+      variants.add(variant.id, runVariant(variant, count, rounds, registries));
+    }
+
+    JsonObject report = new JsonObject();
+    report.addProperty("benchmark", "chunk_block_entity_io");
+    report.addProperty("block_entities", count);
+    report.addProperty("warmup_rounds", WARMUP_ROUNDS);
+    report.addProperty("rounds", rounds);
+    report.addProperty("unit", "ns_per_block_entity");
+    report.addProperty("java_version", System.getProperty("java.version"));
+    report.add("variants", variants);
+
+    Path output =
+        Path.of(System.getProperty(OUTPUT_PROPERTY, "benchmarks/chunk-block-entity-io.json"));
+    try {
+      Path parent = output.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Files.writeString(output, new GsonBuilder().setPrettyPrinting().create().toJson(report));
+    } catch (IOException e) {
+      context.throwGameTestException(Text.literal("Failed to write benchmark report: " + e));
+      return;
+    }
+
+    LOGGER.info("Benchmark report written to {} (checksum {})", output.toAbsolutePath(), blackhole);
+    context.complete();
+  }
+
+  private static JsonObject runVariant(
+      Variant variant, int count, int rounds, RegistryWrapper.WrapperLookup registries) {
+    List<BlockEntity> source = createBlockEntities(variant, count);
+    boolean shulker = variant != Variant.VANILLA_BARREL;
+    Map<String, long[]> samples = new LinkedHashMap<>();
+
+    for (int round = -WARMUP_ROUNDS; round < rounds; round++) {
+      // Chunk save: the per-block-entity serialization the chunk serializer performs
+      List<NbtCompound> saved = new ArrayList<>(count);
+      long start = System.nanoTime();
+      for (BlockEntity blockEntity : source) {
+        saved.add(blockEntity.createNbtWithIdentifyingData(registries));
+      }
+      record(samples, "save", round, rounds, System.nanoTime() - start);
+
+      // Chunk load: recreate each block entity from its saved NBT (runs readData)
+      List<BlockEntity> loaded = new ArrayList<>(count);
+      start = System.nanoTime();
+      for (int i = 0; i < count; i++) {
+        BlockEntity original = source.get(i);
+        loaded.add(
+            BlockEntity.createFromNbt(
+                original.getPos(), original.getCachedState(), saved.get(i), registries));
+      }
+      record(samples, "load", round, rounds, System.nanoTime() - start);
+
+      if (shulker) {
+        // First access parses the components; the second hits the cache
+        start = System.nanoTime();
+        for (BlockEntity blockEntity : loaded) {
+          blackhole +=
+              System.identityHashCode(((TrimmedShulkerBox) blockEntity).shulkerTrims$getTrim());
+        }
+        record(samples, "get_trim_first", round, rounds, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (BlockEntity blockEntity : loaded) {
+          blackhole +=
+              System.identityHashCode(((TrimmedShulkerBox) blockEntity).shulkerTrims$getTrim());
+        }
+        record(samples, "get_trim_cached", round, rounds, System.nanoTime() - start);
+      }
+
+      // Chunk send: client sync NBT built for every block entity in the chunk packet
+      start = System.nanoTime();
+      for (BlockEntity blockEntity : loaded) {
+        blackhole += blockEntity.toInitialChunkDataNbt(registries).getSize();
+      }
+      record(samples, "initial_chunk_data", round, rounds, System.nanoTime() - start);
+
+      blackhole += saved.size() + loaded.size();
+    }
+
+    JsonObject result = new JsonObject();
+    for (Map.Entry<String, long[]> entry : samples.entrySet()) {
+      long[] totals = entry.getValue().clone();
+      Arrays.sort(totals);
+      JsonObject phase = new JsonObject();
+      phase.addProperty("median", (double) totals[totals.length / 2] / count);
+      phase.addProperty("min", (double) totals[0] / count);
+      phase.addProperty("max", (double) totals[totals.length - 1] / count);
+      result.add(entry.getKey(), phase);
+    }
+    return result;
+  }
+
+  private static void record(
+      Map<String, long[]> samples, String phase, int round, int rounds, long elapsedNanos) {
+    if (round < 0) {
+      return; // warmup
+    }
+    samples.computeIfAbsent(phase, key -> new long[rounds])[round] = elapsedNanos;
+  }
+
+  /** Create block entities laid out as full 16x16 chunk layers, stacked upwards. */
+  private static List<BlockEntity> createBlockEntities(Variant variant, int count) {
+    List<BlockEntity> blockEntities = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      BlockPos pos = new BlockPos(i & 15, i >> 8, (i >> 4) & 15);
+      LootableContainerBlockEntity blockEntity =
+          switch (variant) {
+            case VANILLA_BARREL -> new BarrelBlockEntity(pos, Blocks.BARREL.getDefaultState());
+            case UNTRIMMED_SHULKER, TRIMMED_SHULKER ->
+                new ShulkerBoxBlockEntity(pos, Blocks.SHULKER_BOX.getDefaultState());
+          };
+
+      // A few stacks so serialization reflects a realistic, partly filled storage box
+      blockEntity.setStack(0, new ItemStack(Items.COBBLESTONE, 64));
+      blockEntity.setStack(1, new ItemStack(Items.IRON_INGOT, 32));
+      blockEntity.setStack(2, new ItemStack(Items.OAK_LOG, 16));
+
+      if (variant == Variant.TRIMMED_SHULKER) {
+        ShulkerTrim trim =
+            new ShulkerTrim(
+                PATTERNS.get(i % PATTERNS.size()),
+                MATERIALS.get((i / PATTERNS.size()) % MATERIALS.size()));
+        blockEntity.setComponents(
+            ComponentMap.builder()
+                .add(DataComponentTypes.CUSTOM_DATA, trimOnlyCustomData(trim))
+                .build());
+      }
+      blockEntities.add(blockEntity);
+    }
+    return blockEntities;
+  }
+
+  /** Custom data holding nothing but a trim, as on a freshly trimmed item. */
+  private static NbtComponent trimOnlyCustomData(ShulkerTrim trim) {
+    NbtCompound nbt = new NbtCompound();
+    ShulkerTrimStorage.writeTrim(nbt, trim);
+    return NbtComponent.of(nbt);
+  }
+}
@@ -1,16 +1,38 @@
 package com.wlritchi.shulkertrims.fabric.test;
 
 import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimSyncCodec;
 import com.wlritchi.shulkertrims.fabric.ShulkerTrimStorage;
+import com.wlritchi.shulkertrims.fabric.TrimSyncBuffers;
 import com.wlritchi.shulkertrims.fabric.TrimmedShulkerBox;
 import com.wlritchi.shulkertrims.fabric.recipe.ShulkerTrimRecipe;
+import com.wlritchi.shulkertrims.fabric.recipe.TrimTemplatePatterns;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import net.fabricmc.fabric.api.gametest.v1.GameTest;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.DispenserBlock;
 import net.minecraft.block.entity.DispenserBlockEntity;
 import net.minecraft.block.entity.ShulkerBoxBlockEntity;
+import net.minecraft.component.ComponentMap;
+import net.minecraft.component.ComponentType;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.component.type.NbtComponent;
 import net.minecraft.entity.ItemEntity;
@@ -19,12 +41,15 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.recipe.Ingredient;
+import net.minecraft.recipe.RecipeEntry;
 import net.minecraft.recipe.input.SmithingRecipeInput;
+import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.test.TestContext;
 import net.minecraft.text.Text;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.Direction;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * GameTest tests for Shulker Trims mod functionality. Tests verify that trim data is correctly
@@ -34,6 +59,7 @@ public class ShulkerTrimsGameTest {
 
   private static final String WILD_PATTERN = "minecraft:wild";
   private static final String COPPER_MATERIAL = "minecraft:copper";
+  private static final String DATAPACK_PATTERN = "shulker_trims_test:stripes";
 
   /**
    * Test that the smithing recipe correctly applies trim data to a shulker box. Verifies the output
@@ -255,6 +281,326 @@ public class ShulkerTrimsGameTest {
     context.complete();
   }
 
+  /** Test that items whose custom_data holds only the trim share one component instance. */
+  @GameTest
+  public void testTrimOnlyItemsShareCustomData(TestContext context) {
+    ShulkerTrim trim = new ShulkerTrim(WILD_PATTERN, COPPER_MATERIAL);
+    ItemStack first = new ItemStack(Items.SHULKER_BOX);
+    ItemStack second = new ItemStack(Items.BLUE_SHULKER_BOX);
+    ShulkerTrimStorage.writeTrimToItem(first, trim);
+    ShulkerTrimStorage.writeTrimToItem(second, new ShulkerTrim(WILD_PATTERN, COPPER_MATERIAL));
+
+    context.assertTrue(
+        first.get(DataComponentTypes.CUSTOM_DATA) == second.get(DataComponentTypes.CUSTOM_DATA),
+        Text.literal("Trim-only items should share the same custom_data instance"));
+
+    // Items with other custom data keep their own component, with the trim merged in
+    NbtCompound extra = new NbtCompound();
+    extra.putString("othermod:tag", "value");
+    ItemStack tagged = new ItemStack(Items.SHULKER_BOX);
+    tagged.set(DataComponentTypes.CUSTOM_DATA, NbtComponent.of(extra));
+    ShulkerTrimStorage.writeTrimToItem(tagged, trim);
+
+    NbtComponent taggedData = tagged.get(DataComponentTypes.CUSTOM_DATA);
+    context.assertTrue(
+        taggedData != first.get(DataComponentTypes.CUSTOM_DATA),
+        Text.literal("Items with other custom data should not use the shared instance"));
+    context.assertTrue(
+        taggedData.contains("othermod:tag"), Text.literal("Other custom data should be preserved"));
+    context.assertTrue(
+        trim.equals(ShulkerTrimStorage.readTrimFromItem(tagged)),
+        Text.literal("Trim should be merged into existing custom data"));
+
+    context.complete();
+  }
+
+  /**
+   * Test that replacing a block entity's components (as /data or setComponents do) invalidates the
+   * cached trim instead of serving the stale one.
+   */
+  @GameTest
+  public void testComponentReplacementInvalidatesCachedTrim(TestContext context) {
+    BlockPos pos = new BlockPos(0, 1, 0);
+    context.setBlockState(pos, Blocks.SHULKER_BOX.getDefaultState());
+    ShulkerBoxBlockEntity be = context.getBlockEntity(pos, ShulkerBoxBlockEntity.class);
+
+    if (!(be instanceof TrimmedShulkerBox trimmedBE)) {
+      context.throwPositionedException(
+          Text.literal("Block entity should implement TrimmedShulkerBox"), pos);
+      return;
+    }
+
+    // Prime the cache with the untrimmed state
+    context.assertTrue(
+        trimmedBE.shulkerTrims$getTrim() == null,
+        Text.literal("Fresh shulker should be untrimmed"));
+
+    // Replace components with a trimmed custom_data
+    NbtCompound nbt = new NbtCompound();
+    ShulkerTrimStorage.writeTrim(nbt, new ShulkerTrim(WILD_PATTERN, COPPER_MATERIAL));
+    be.setComponents(
+        ComponentMap.builder().add(DataComponentTypes.CUSTOM_DATA, NbtComponent.of(nbt)).build());
+
+    ShulkerTrim trim = trimmedBE.shulkerTrims$getTrim();
+    context.assertTrue(trim != null, Text.literal("Trim should be re-read after replacement"));
+    context.assertTrue(
+        WILD_PATTERN.equals(trim.pattern()), Text.literal("Re-read pattern should match"));
+
+    // Clearing components should clear the trim again
+    be.setComponents(ComponentMap.EMPTY);
+    context.assertTrue(
+        trimmedBE.shulkerTrims$getTrim() == null,
+        Text.literal("Trim should be cleared after components are removed"));
+
+    context.complete();
+  }
+
+  /**
+   * Test that a watcher loading the chunk between a trim change and the next update broadcast does
+   * not suppress the update for players who were already watching.
+   */
+  @GameTest
+  public void testTrimChangeAfterSecondWatcherLoadsChunk(TestContext context) {
+    BlockPos pos = new BlockPos(0, 1, 0);
+    context.setBlockState(pos, Blocks.SHULKER_BOX.getDefaultState());
+    ShulkerBoxBlockEntity be = context.getBlockEntity(pos, ShulkerBoxBlockEntity.class);
+
+    if (!(be instanceof TrimmedShulkerBox trimmedBE)) {
+      context.throwPositionedException(
+          Text.literal("Block entity should implement TrimmedShulkerBox"), pos);
+      return;
+    }
+
+    RegistryWrapper.WrapperLookup registries = context.getWorld().getRegistryManager();
+    ShulkerTrim firstTrim = new ShulkerTrim(WILD_PATTERN, COPPER_MATERIAL);
+    ShulkerTrim secondTrim = new ShulkerTrim("minecraft:sentry", "minecraft:gold");
+
+    // The first watcher is sent the chunk, then an update for the first trim
+    be.toInitialChunkDataNbt(registries);
+    trimmedBE.shulkerTrims$setTrim(firstTrim);
+    context.assertTrue(
+        be.toUpdatePacket() != null, Text.literal("First trim should be broadcast as an update"));
+
+    // The trim changes, and a second watcher loads the chunk before the update goes out
+    trimmedBE.shulkerTrims$setTrim(secondTrim);
+    ShulkerTrim loaded = ShulkerTrimStorage.readTrim(be.toInitialChunkDataNbt(registries));
+    context.assertTrue(
+        secondTrim.equals(loaded), Text.literal("Second watcher should load the new trim"));
+
+    // The first watcher must still be sent the change, exactly once
+    context.assertTrue(
+        be.toUpdatePacket() != null,
+        Text.literal("Trim change should still be broadcast after a watcher loads the chunk"));
+    context.assertTrue(
+        be.toUpdatePacket() == null, Text.literal("An unchanged trim should not be re-broadcast"));
+
+    context.complete();
+  }
+
+  /**
+   * Stress test the block entity trim cache: many threads read the trim and build chunk sync NBT
+   * (as off-thread chunk serialization does) while the server thread keeps replacing components.
+   * Every read must observe one of the two valid trims, never a torn or missing value.
+   */
+  @GameTest
+  public void testConcurrentTrimCacheAccess(TestContext context) {
+    BlockPos pos = new BlockPos(0, 1, 0);
+    context.setBlockState(pos, Blocks.SHULKER_BOX.getDefaultState());
+    ShulkerBoxBlockEntity be = context.getBlockEntity(pos, ShulkerBoxBlockEntity.class);
+
+    if (!(be instanceof TrimmedShulkerBox trimmedBE)) {
+      context.throwPositionedException(
+          Text.literal("Block entity should implement TrimmedShulkerBox"), pos);
+      return;
+    }
+
+    ShulkerTrim trimA = new ShulkerTrim(WILD_PATTERN, COPPER_MATERIAL);
+    ShulkerTrim trimB = new ShulkerTrim("minecraft:sentry", "minecraft:gold");
+    ComponentMap componentsA =
+        ComponentMap.builder()
+            .add(DataComponentTypes.CUSTOM_DATA, trimOnlyCustomData(trimA))
+            .build();
+    ComponentMap componentsB =
+        ComponentMap.builder()
+            .add(DataComponentTypes.CUSTOM_DATA, trimOnlyCustomData(trimB))
+            .build();
+    be.setComponents(componentsA);
+
+    RegistryWrapper.WrapperLookup registries = context.getWorld().getRegistryManager();
+    int threads = 8;
+    int iterations = 10_000;
+    AtomicReference<String> failure = new AtomicReference<>();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int t = 0; t < threads; t++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                for (int i = 0; i < iterations && failure.get() == null; i++) {
+                  ShulkerTrim trim = trimmedBE.shulkerTrims$getTrim();
+                  if (!trimA.equals(trim) && !trimB.equals(trim)) {
+                    failure.compareAndSet(null, "getTrim returned " + trim);
+                  }
+                  ShulkerTrim synced =
+                      ShulkerTrimStorage.readTrim(be.toInitialChunkDataNbt(registries));
+                  if (!trimA.equals(synced) && !trimB.equals(synced)) {
+                    failure.compareAndSet(null, "toInitialChunkDataNbt wrote " + synced);
+                  }
+                }
+                return null;
+              }));
+    }
+
+    start.countDown();
+    for (int i = 0; i < iterations; i++) {
+      be.setComponents(i % 2 == 0 ? componentsB : componentsA);
+    }
+
+    try {
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } catch (InterruptedException | ExecutionException | TimeoutException e) {
+      failure.compareAndSet(null, "Worker failed: " + e);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    context.assertTrue(
+        failure.get() == null, Text.literal("Concurrent trim access failed: " + failure.get()));
+    context.complete();
+  }
+
+  /**
+   * Test that threads racing to load the trim for new components parse them exactly once. Each
+   * round installs fresh components that count their custom_data reads, then releases every reader
+   * at once.
+   */
+  @GameTest
+  public void testConcurrentFirstReadsParseOnce(TestContext context) {
+    BlockPos pos = new BlockPos(0, 1, 0);
+    context.setBlockState(pos, Blocks.SHULKER_BOX.getDefaultState());
+    ShulkerBoxBlockEntity be = context.getBlockEntity(pos, ShulkerBoxBlockEntity.class);
+
+    if (!(be instanceof TrimmedShulkerBox trimmedBE)) {
+      context.throwPositionedException(
+          Text.literal("Block entity should implement TrimmedShulkerBox"), pos);
+      return;
+    }
+
+    ShulkerTrim trimA = new ShulkerTrim(WILD_PATTERN, COPPER_MATERIAL);
+    ShulkerTrim trimB = new ShulkerTrim("minecraft:sentry", "minecraft:gold");
+    NbtComponent customDataA = trimOnlyCustomData(trimA);
+    NbtComponent customDataB = trimOnlyCustomData(trimB);
+
+    int threads = 8;
+    int rounds = 500;
+    int readsPerThread = 16;
+    AtomicReference<String> failure = new AtomicReference<>();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    try {
+      for (int round = 0; round < rounds && failure.get() == null; round++) {
+        int r = round;
+        ShulkerTrim expected = round % 2 == 0 ? trimA : trimB;
+        CountingComponentMap components =
+            new CountingComponentMap(
+                ComponentMap.builder()
+                    .add(DataComponentTypes.CUSTOM_DATA, round % 2 == 0 ? customDataA : customDataB)
+                    .build());
+        be.setComponents(components);
+        // Only count reads made by the racing threads
+        components.customDataReads.set(0);
+
+        CyclicBarrier start = new CyclicBarrier(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+          futures.add(
+              executor.submit(
+                  () -> {
+                    start.await();
+                    for (int i = 0; i < readsPerThread; i++) {
+                      ShulkerTrim trim = trimmedBE.shulkerTrims$getTrim();
+                      if (!expected.equals(trim)) {
+                        failure.compareAndSet(null, "Round " + r + ": getTrim returned " + trim);
+                      }
+                    }
+                    return null;
+                  }));
+        }
+        for (Future<?> future : futures) {
+          future.get(30, TimeUnit.SECONDS);
+        }
+
+        int parses = components.customDataReads.get();
+        if (parses != 1) {
+          failure.compareAndSet(null, "Round " + r + ": components parsed " + parses + " times");
+        }
+      }
+    } catch (InterruptedException | ExecutionException | TimeoutException e) {
+      failure.compareAndSet(null, "Worker failed: " + e);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    context.assertTrue(
+        failure.get() == null, Text.literal("Concurrent first reads failed: " + failure.get()));
+    context.complete();
+  }
+
+  /**
+   * Test that sync messages encoded through {@link TrimSyncBuffers} land in the Netty buffer for
+   * every kind of buffer: heap, direct, and composite buffers whose NIO views are copies.
+   */
+  @GameTest
+  public void testTrimSyncBuffersWriteEveryBufferKind(TestContext context) {
+    ShulkerTrim trim = new ShulkerTrim(WILD_PATTERN, COPPER_MATERIAL);
+    int size = TrimSyncCodec.trimSyncSize(trim);
+    ByteBuffer expected = ByteBuffer.allocate(size);
+    TrimSyncCodec.writeTrimSync(expected, 1, -2, 3, trim);
+
+    // Holds only the prefix, so the message goes into a second component
+    CompositeByteBuf composite = Unpooled.compositeBuffer();
+    composite.addComponent(true, Unpooled.buffer(1).writeByte(0x7F));
+    List<ByteBuf> buffers =
+        List.of(
+            Unpooled.buffer().writeByte(0x7F), Unpooled.directBuffer().writeByte(0x7F), composite);
+
+    for (ByteBuf buf : buffers) {
+      String kind = buf.getClass().getSimpleName();
+      try {
+        ByteBuffer out = TrimSyncBuffers.beginWrite(buf, size);
+        TrimSyncCodec.writeTrimSync(out, 1, -2, 3, trim);
+        TrimSyncBuffers.endWrite(buf, out);
+
+        context.assertTrue(
+            buf.readableBytes() == 1 + size,
+            Text.literal(kind + " should hold the prefix and the message"));
+        byte[] written = new byte[size];
+        buf.getBytes(1, written);
+        context.assertTrue(
+            Arrays.equals(expected.array(), written),
+            Text.literal(kind + " should hold the encoded bytes, not a stale view"));
+
+        buf.skipBytes(1);
+        ByteBuffer in = TrimSyncBuffers.beginRead(buf);
+        ShulkerTrim read = TrimSyncCodec.readTrimSync(in, (x, y, z, decoded) -> decoded);
+        TrimSyncBuffers.endRead(buf, in);
+        context.assertTrue(
+            trim.equals(read), Text.literal(kind + " should decode the written trim"));
+        context.assertTrue(
+            buf.readableBytes() == 0, Text.literal(kind + " should be fully consumed"));
+      } finally {
+        buf.release();
+      }
+    }
+
+    context.complete();
+  }
+
   /** Test that the recipe correctly handles different trim patterns. */
   @GameTest
   public void testDifferentTrimPatterns(TestContext context) {
@@ -264,6 +610,55 @@ public class ShulkerTrimsGameTest {
     context.complete();
   }
 
+  /**
+   * Test that the shulker trim recipe loaded from data accepts a vanilla template through the
+   * {@code #minecraft:trim_templates} tag and resolves its pattern from the trim recipe index.
+   */
+  @GameTest
+  public void testLoadedRecipeWithVanillaTemplate(TestContext context) {
+    ItemStack template = new ItemStack(Items.SPIRE_ARMOR_TRIM_SMITHING_TEMPLATE);
+    ShulkerTrimRecipe recipe = loadedRecipe(context);
+
+    context.assertTrue(
+        recipe.template().orElseThrow().test(template),
+        Text.literal("Template tag should accept a vanilla trim template"));
+    assertLoadedRecipeCrafts(context, recipe, template, "minecraft:spire");
+
+    context.complete();
+  }
+
+  /**
+   * Test that the loaded recipe picks up a trim pattern added by a datapack. The test mod's data
+   * adds {@code shulker_trims_test:stripes} with a {@code smithing_trim} recipe using an echo shard
+   * as its template.
+   */
+  @GameTest
+  public void testLoadedRecipeWithDatapackTemplate(TestContext context) {
+    assertLoadedRecipeCrafts(
+        context, loadedRecipe(context), new ItemStack(Items.ECHO_SHARD), DATAPACK_PATTERN);
+
+    context.complete();
+  }
+
+  /** Test that rebuilding the template index, as a datapack reload does, keeps every template. */
+  @GameTest
+  public void testTemplateIndexRebuild(TestContext context) {
+    TrimTemplatePatterns.rebuild(context.getWorld().getServer());
+
+    ShulkerTrimRecipe recipe = loadedRecipe(context);
+    assertLoadedRecipeCrafts(
+        context,
+        recipe,
+        new ItemStack(Items.SPIRE_ARMOR_TRIM_SMITHING_TEMPLATE),
+        "minecraft:spire");
+    assertLoadedRecipeCrafts(context, recipe, new ItemStack(Items.ECHO_SHARD), DATAPACK_PATTERN);
+    context.assertTrue(
+        TrimTemplatePatterns.get(new ItemStack(Items.PAPER)) == null,
+        Text.literal("Items without a trim recipe should not resolve to a pattern"));
+
+    context.complete();
+  }
+
   /** Test that the recipe correctly handles different trim materials. */
   @GameTest
   public void testDifferentTrimMaterials(TestContext context) {
@@ -382,4 +777,61 @@ public class ShulkerTrimsGameTest {
                 + ", got: "
                 + (trim != null ? trim.pattern() : "null")));
   }
+
+  /** The shulker trim recipe as loaded from the mod's data. */
+  private static ShulkerTrimRecipe loadedRecipe(TestContext context) {
+    for (RecipeEntry<?> entry : context.getWorld().getServer().getRecipeManager().values()) {
+      if (entry.value() instanceof ShulkerTrimRecipe recipe) {
+        return recipe;
+      }
+    }
+    context.throwGameTestException(Text.literal("Shulker trim recipe should be loaded"));
+    return null;
+  }
+
+  private static void assertLoadedRecipeCrafts(
+      TestContext context, ShulkerTrimRecipe recipe, ItemStack template, String expectedPattern) {
+    SmithingRecipeInput input =
+        new SmithingRecipeInput(
+            template, new ItemStack(Items.SHULKER_BOX), new ItemStack(Items.COPPER_INGOT));
+    context.assertTrue(
+        recipe.matches(input, context.getWorld()),
+        Text.literal("Loaded recipe should match template " + template.getItem()));
+
+    ItemStack result = recipe.craft(input, context.getWorld().getRegistryManager());
+    ShulkerTrim trim = ShulkerTrimStorage.readTrimFromItem(result);
+    context.assertTrue(
+        trim != null && expectedPattern.equals(trim.pattern()),
+        Text.literal("Pattern should be " + expectedPattern + ", got: " + trim));
+  }
+
+  /** Custom data holding nothing but a trim, as on a freshly trimmed item. */
+  /** A component map that counts how often its custom_data is read, i.e. how often it is parsed. */
+  private static final class CountingComponentMap implements ComponentMap {
+    private final ComponentMap delegate;
+    final AtomicInteger customDataReads = new AtomicInteger();
+
+    CountingComponentMap(ComponentMap delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public <T> @Nullable T get(ComponentType<? extends T> type) {
+      if (type == DataComponentTypes.CUSTOM_DATA) {
+        customDataReads.incrementAndGet();
+      }
+      return delegate.get(type);
+    }
+
+    @Override
+    public Set<ComponentType<?>> getTypes() {
+      return delegate.getTypes();
+    }
+  }
+
+  private static NbtComponent trimOnlyCustomData(ShulkerTrim trim) {
+    NbtCompound nbt = new NbtCompound();
+    ShulkerTrimStorage.writeTrim(nbt, trim);
+    return NbtComponent.of(nbt);
+  }
 }
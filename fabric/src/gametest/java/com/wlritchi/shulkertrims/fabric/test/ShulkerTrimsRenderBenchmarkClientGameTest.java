@@ -0,0 +1,408 @@
+package com.wlritchi.shulkertrims.fabric.test;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimStorage;
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimsConfig;
+import com.wlritchi.shulkertrims.fabric.TrimmedShulkerBox;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.fabricmc.fabric.api.client.gametest.v1.FabricClientGameTest;
+import net.fabricmc.fabric.api.client.gametest.v1.context.ClientGameTestContext;
+import net.fabricmc.fabric.api.client.gametest.v1.context.TestSingleplayerContext;
+import net.minecraft.block.Block;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.ShulkerBoxBlockEntity;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.entity.decoration.ItemFrameEntity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark for the client frame time cost of rendering trimmed shulker boxes.
+ *
+ * <p>Builds a stack of 32x32 layers of shulker boxes in each form the mod renders (placed blocks,
+ * items in item frames and dropped items), points a spectator camera at it from outside the corner
+ * and times {@code waitFrame} over a fixed number of frames. Each scene is measured once with trims
+ * and once without. Mixins can't be disabled within one JVM, so the untrimmed scene, where every
+ * hook returns early, serves as the overlays-off baseline. Composite rendering of placed boxes
+ * follows {@code trim_composite} in {@code config/shulker_trims.properties}; run twice with it
+ * toggled to compare the composite and overlay paths.
+ *
+ * <p>Skipped unless enabled, since building the larger scenes takes minutes. It runs headless under
+ * xvfb with Mesa's software renderer, so absolute numbers from a plain Linux box are only
+ * comparable with each other:
+ *
+ * <pre>
+ * xvfb-run -a -s "-screen 0 1920x1080x24" \
+ *     ./gradlew :fabric:runClientGameTest -Dshulker_trims.render_benchmark=true
+ * </pre>
+ *
+ * <p>Optional properties: {@code shulker_trims.render_benchmark.counts} (comma-separated box counts
+ * per scene, default 1000,5000,20000), {@code shulker_trims.render_benchmark.forms}
+ * (comma-separated subset of block, item_frame and dropped_item), {@code
+ * shulker_trims.render_benchmark.frames} (measured frames per scene, default 600) and {@code
+ * shulker_trims.render_benchmark.output} (JSON report path).
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class ShulkerTrimsRenderBenchmarkClientGameTest implements FabricClientGameTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("ShulkerTrimsRenderBenchmark");
+
+  private static final String ENABLED_PROPERTY = "shulker_trims.render_benchmark";
+  private static final String COUNTS_PROPERTY = "shulker_trims.render_benchmark.counts";
+  private static final String FORMS_PROPERTY = "shulker_trims.render_benchmark.forms";
+  private static final String FRAMES_PROPERTY = "shulker_trims.render_benchmark.frames";
+  private static final String OUTPUT_PROPERTY = "shulker_trims.render_benchmark.output";
+
+  private static final int WARMUP_FRAMES = 120;
+  private static final int VIEW_DISTANCE = 12;
+
+  /** Side length of each layer of the scene, in blocks. */
+  private static final int FOOTPRINT = 32;
+
+  private static final int BASE_Y = 100;
+
+  private static final double[] PERCENTILES = {0.5, 0.9, 0.95, 0.99};
+
+  private static final List<String> PATTERNS =
+      List.of(
+          "minecraft:sentry",
+          "minecraft:vex",
+          "minecraft:wild",
+          "minecraft:coast",
+          "minecraft:dune",
+          "minecraft:wayfinder",
+          "minecraft:raiser",
+          "minecraft:shaper",
+          "minecraft:host",
+          "minecraft:ward",
+          "minecraft:silence",
+          "minecraft:tide",
+          "minecraft:snout",
+          "minecraft:rib",
+          "minecraft:eye",
+          "minecraft:spire",
+          "minecraft:flow",
+          "minecraft:bolt");
+
+  private static final List<String> MATERIALS =
+      List.of(
+          "minecraft:quartz",
+          "minecraft:iron",
+          "minecraft:netherite",
+          "minecraft:redstone",
+          "minecraft:copper",
+          "minecraft:gold",
+          "minecraft:emerald",
+          "minecraft:diamond",
+          "minecraft:lapis",
+          "minecraft:amethyst",
+          "minecraft:resin");
+
+  private static final List<Block> SHULKER_BLOCKS =
+      List.of(
+          Blocks.SHULKER_BOX,
+          Blocks.WHITE_SHULKER_BOX,
+          Blocks.ORANGE_SHULKER_BOX,
+          Blocks.MAGENTA_SHULKER_BOX,
+          Blocks.LIGHT_BLUE_SHULKER_BOX,
+          Blocks.YELLOW_SHULKER_BOX,
+          Blocks.LIME_SHULKER_BOX,
+          Blocks.PINK_SHULKER_BOX,
+          Blocks.GRAY_SHULKER_BOX,
+          Blocks.LIGHT_GRAY_SHULKER_BOX,
+          Blocks.CYAN_SHULKER_BOX,
+          Blocks.PURPLE_SHULKER_BOX,
+          Blocks.BLUE_SHULKER_BOX,
+          Blocks.BROWN_SHULKER_BOX,
+          Blocks.GREEN_SHULKER_BOX,
+          Blocks.RED_SHULKER_BOX,
+          Blocks.BLACK_SHULKER_BOX);
+
+  private enum Form {
+    BLOCK("block", 1),
+    // Each layer of frames lies flat on its own floor, so layers are two blocks apart
+    ITEM_FRAME("item_frame", 2),
+    DROPPED_ITEM("dropped_item", 1);
+
+    private final String id;
+    private final int layerHeight;
+
+    Form(String id, int layerHeight) {
+      this.id = id;
+      this.layerHeight = layerHeight;
+    }
+  }
+
+  @Override
+  public void runTest(ClientGameTestContext context) {
+    if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+      LOGGER.info("Skipping render benchmark (enable with -D{}=true)", ENABLED_PROPERTY);
+      return;
+    }
+
+    int[] counts = parseCounts(System.getProperty(COUNTS_PROPERTY, "1000,5000,20000"));
+    List<Form> forms = parseForms(System.getProperty(FORMS_PROPERTY));
+    int frames = Integer.getInteger(FRAMES_PROPERTY, 600);
+
+    JsonObject scenes = new JsonObject();
+    int framebufferWidth;
+    int framebufferHeight;
+    try (TestSingleplayerContext singleplayer = context.worldBuilder().create()) {
+      singleplayer.getClientWorld().waitForChunksRender();
+      configure(context, singleplayer);
+      framebufferWidth =
+          context.computeOnClient(client -> client.getWindow().getFramebufferWidth());
+      framebufferHeight =
+          context.computeOnClient(client -> client.getWindow().getFramebufferHeight());
+
+      for (Form form : forms) {
+        JsonObject byCount = new JsonObject();
+        for (int count : counts) {
+          JsonObject variants = new JsonObject();
+          for (boolean trimmed : new boolean[] {false, true}) {
+            String variant = trimmed ? "trimmed" : "untrimmed";
+            LOGGER.info("Benchmarking {} {} x{} for {} frames", variant, form.id, count, frames);
+            buildScene(context, singleplayer, form, count, trimmed);
+            variants.add(variant, measure(context, frames));
+            clearScene(context, singleplayer, layersOf(count) * form.layerHeight);
+          }
+          byCount.add(Integer.toString(count), variants);
+        }
+        scenes.add(form.id, byCount);
+      }
+    }
+
+    JsonObject report = new JsonObject();
+    report.addProperty("benchmark", "client_frame_time");
+    report.addProperty("warmup_frames", WARMUP_FRAMES);
+    report.addProperty("frames", frames);
+    report.addProperty("unit", "ms_per_frame");
+    report.addProperty("framebuffer_width", framebufferWidth);
+    report.addProperty("framebuffer_height", framebufferHeight);
+    report.addProperty("view_distance", VIEW_DISTANCE);
+    report.addProperty("trim_composite", ShulkerTrimsConfig.trimComposite());
+    report.addProperty("trim_detail_distance", ShulkerTrimsConfig.trimDetailDistance());
+    report.addProperty("java_version", System.getProperty("java.version"));
+    report.addProperty("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+    report.add("scenes", scenes);
+
+    Path output = Path.of(System.getProperty(OUTPUT_PROPERTY, "benchmarks/client-frame-time.json"));
+    try {
+      Path parent = output.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Files.writeString(output, new GsonBuilder().setPrettyPrinting().create().toJson(report));
+    } catch (IOException e) {
+      throw new AssertionError("Failed to write render benchmark report", e);
+    }
+
+    LOGGER.info("Render benchmark report written to {}", output.toAbsolutePath());
+  }
+
+  /** Fix the world and client settings that would otherwise vary frame time between scenes. */
+  private static void configure(
+      ClientGameTestContext context, TestSingleplayerContext singleplayer) {
+    singleplayer.getServer().runCommand("gamerule doDaylightCycle false");
+    singleplayer.getServer().runCommand("gamerule doMobSpawning false");
+    singleplayer.getServer().runCommand("time set noon");
+    singleplayer.getServer().runCommand("weather clear 1000000");
+    // Spectators neither fall nor draw a hand or hotbar
+    singleplayer.getServer().runCommand("gamemode spectator @p");
+
+    context.runOnClient(
+        client -> {
+          client.options.hudHidden = true;
+          client.options.getEnableVsync().setValue(false);
+          // 260 is the slider's "unlimited" value
+          client.options.getMaxFps().setValue(260);
+          client.options.getViewDistance().setValue(VIEW_DISTANCE);
+        });
+    context.waitTicks(5);
+  }
+
+  private static void buildScene(
+      ClientGameTestContext context,
+      TestSingleplayerContext singleplayer,
+      Form form,
+      int count,
+      boolean trimmed) {
+    singleplayer
+        .getServer()
+        .runOnServer(
+            server -> {
+              ServerWorld world = server.getOverworld();
+              for (int i = 0; i < count; i++) {
+                BlockPos pos = positionOf(form, i);
+                ShulkerTrim trim = trimmed ? trimOf(i) : null;
+                Block block = SHULKER_BLOCKS.get(i % SHULKER_BLOCKS.size());
+                switch (form) {
+                  case BLOCK -> {
+                    world.setBlockState(pos, block.getDefaultState());
+                    if (trim != null
+                        && world.getBlockEntity(pos) instanceof ShulkerBoxBlockEntity be
+                        && be instanceof TrimmedShulkerBox trimmedBe) {
+                      trimmedBe.shulkerTrims$setTrim(trim);
+                      be.markDirty();
+                    }
+                  }
+                  case ITEM_FRAME -> {
+                    world.setBlockState(pos.down(), Blocks.STONE.getDefaultState());
+                    ItemFrameEntity frame = new ItemFrameEntity(world, pos, Direction.UP);
+                    frame.setHeldItemStack(createStack(block.asItem(), trim));
+                    world.spawnEntity(frame);
+                  }
+                  case DROPPED_ITEM -> {
+                    ItemEntity item =
+                        new ItemEntity(
+                            world,
+                            pos.getX() + 0.5,
+                            pos.getY() + 0.25,
+                            pos.getZ() + 0.5,
+                            createStack(block.asItem(), trim),
+                            0,
+                            0,
+                            0);
+                    // One block apart is outside the merge radius, so every item stays separate
+                    item.setNoGravity(true);
+                    item.setNeverDespawn();
+                    item.setPickupDelayInfinite();
+                    world.spawnEntity(item);
+                  }
+                }
+              }
+            });
+
+    // Look at the middle of the stack from outside its corner
+    int top = BASE_Y + layersOf(count) * form.layerHeight;
+    int middle = (BASE_Y + top) / 2;
+    singleplayer
+        .getServer()
+        .runCommand(
+            String.format(
+                "tp @p %d %d %d facing %d %d %d",
+                -12, top + 12, -12, FOOTPRINT / 2, middle, FOOTPRINT / 2));
+
+    context.waitTicks(20);
+    singleplayer.getClientWorld().waitForChunksRender();
+  }
+
+  private static void clearScene(
+      ClientGameTestContext context, TestSingleplayerContext singleplayer, int height) {
+    singleplayer
+        .getServer()
+        .runOnServer(
+            server -> {
+              ServerWorld world = server.getOverworld();
+              for (Entity entity : world.iterateEntities()) {
+                if (!(entity instanceof PlayerEntity)) {
+                  entity.discard();
+                }
+              }
+              for (int y = BASE_Y - 1; y < BASE_Y + height; y++) {
+                for (int x = 0; x < FOOTPRINT; x++) {
+                  for (int z = 0; z < FOOTPRINT; z++) {
+                    world.setBlockState(new BlockPos(x, y, z), Blocks.AIR.getDefaultState());
+                  }
+                }
+              }
+            });
+    context.waitTicks(5);
+  }
+
+  /** Time frames after a warmup, which also builds any textures the scene needs. */
+  private static JsonObject measure(ClientGameTestContext context, int frames) {
+    context.waitFrames(WARMUP_FRAMES);
+
+    long[] samples = new long[frames];
+    for (int i = 0; i < frames; i++) {
+      long start = System.nanoTime();
+      context.waitFrame();
+      samples[i] = System.nanoTime() - start;
+    }
+
+    long total = 0;
+    for (long sample : samples) {
+      total += sample;
+    }
+    Arrays.sort(samples);
+
+    JsonObject result = new JsonObject();
+    result.addProperty("mean", total / 1e6 / frames);
+    for (double percentile : PERCENTILES) {
+      // Nearest-rank percentile
+      int index = Math.max(0, (int) Math.ceil(percentile * frames) - 1);
+      result.addProperty("p" + Math.round(percentile * 100), samples[index] / 1e6);
+    }
+    result.addProperty("max", samples[frames - 1] / 1e6);
+    return result;
+  }
+
+  /** Fill 32x32 layers row by row, stacking layers upwards. */
+  private static BlockPos positionOf(Form form, int index) {
+    int layer = index / (FOOTPRINT * FOOTPRINT);
+    int inLayer = index % (FOOTPRINT * FOOTPRINT);
+    return new BlockPos(
+        inLayer % FOOTPRINT,
+        BASE_Y + layer * form.layerHeight + (form.layerHeight - 1),
+        inLayer / FOOTPRINT);
+  }
+
+  private static int layersOf(int count) {
+    return Math.ceilDiv(count, FOOTPRINT * FOOTPRINT);
+  }
+
+  private static ShulkerTrim trimOf(int index) {
+    return new ShulkerTrim(
+        PATTERNS.get(index % PATTERNS.size()),
+        MATERIALS.get((index / PATTERNS.size()) % MATERIALS.size()));
+  }
+
+  private static ItemStack createStack(Item item, @Nullable ShulkerTrim trim) {
+    ItemStack stack = new ItemStack(item);
+    if (trim != null) {
+      ShulkerTrimStorage.writeTrimToItem(stack, trim);
+    }
+    return stack;
+  }
+
+  private static int[] parseCounts(String value) {
+    return Arrays.stream(value.split(","))
+        .map(String::trim)
+        .filter(s -> !s.isEmpty())
+        .mapToInt(Integer::parseInt)
+        .toArray();
+  }
+
+  private static List<Form> parseForms(String value) {
+    if (value == null) {
+      return List.of(Form.values());
+    }
+    List<Form> forms = new ArrayList<>();
+    for (String id : value.split(",")) {
+      String trimmed = id.trim();
+      Form form =
+          Arrays.stream(Form.values())
+              .filter(f -> f.id.equals(trimmed))
+              .findFirst()
+              .orElseThrow(() -> new IllegalArgumentException("Unknown form: " + trimmed));
+      forms.add(form);
+    }
+    return forms;
+  }
+}
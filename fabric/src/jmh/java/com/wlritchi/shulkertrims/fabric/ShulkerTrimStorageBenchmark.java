@@ -0,0 +1,70 @@
+package com.wlritchi.shulkertrims.fabric;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.component.type.NbtComponent;
+import net.minecraft.nbt.NbtCompound;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Trim NBT reads and writes in {@link ShulkerTrimStorage}. Item stack paths need a bootstrapped
+ * game and are covered by the game tests instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShulkerTrimStorageBenchmark {
+
+  private ShulkerTrim trim;
+  private NbtCompound trimmed;
+  private NbtCompound untrimmed;
+  private NbtComponent customData;
+
+  @Setup
+  public void setup() {
+    trim = TrimRegistry.global().of("minecraft:wayfinder", "minecraft:netherite");
+    trimmed = new NbtCompound();
+    ShulkerTrimStorage.writeTrim(trimmed, trim);
+    // Box contents and a custom name alongside the trim, as a placed box would have
+    trimmed.put("Items", new NbtCompound());
+    trimmed.putString("CustomName", "\"Storage\"");
+    untrimmed = new NbtCompound();
+    untrimmed.put("Items", new NbtCompound());
+    customData = NbtComponent.of(trimmed);
+  }
+
+  @Benchmark
+  public NbtCompound write() {
+    NbtCompound nbt = new NbtCompound();
+    ShulkerTrimStorage.writeTrim(nbt, trim);
+    return nbt;
+  }
+
+  @Benchmark
+  public ShulkerTrim read() {
+    return ShulkerTrimStorage.readTrim(trimmed);
+  }
+
+  @Benchmark
+  public ShulkerTrim readUntrimmed() {
+    return ShulkerTrimStorage.readTrim(untrimmed);
+  }
+
+  @Benchmark
+  public ShulkerTrim readCustomData() {
+    return ShulkerTrimStorage.readTrim(customData);
+  }
+}
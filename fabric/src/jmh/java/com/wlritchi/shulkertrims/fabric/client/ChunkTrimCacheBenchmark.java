@@ -0,0 +1,76 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tracking-map operations of the client's {@link ChunkTrimCache}: recording single boxes as sync
+ * packets arrive, and looking up and hashing a chunk as it loads. The cache holds {@link #CHUNKS}
+ * chunks of {@link #TRIMS_PER_CHUNK} boxes each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChunkTrimCacheBenchmark {
+  private static final int CHUNKS = 1024;
+  private static final int TRIMS_PER_CHUNK = 16;
+
+  private ChunkTrimCache cache;
+  private ShulkerTrim trim;
+  private ShulkerTrim otherTrim;
+  private BlockPos[] positions;
+  private long chunk;
+  private int next;
+
+  @Setup
+  public void setup() {
+    cache = ChunkTrimCache.load(null);
+    trim = TrimRegistry.global().of("minecraft:wayfinder", "minecraft:netherite");
+    otherTrim = TrimRegistry.global().of("minecraft:sentry", "minecraft:gold");
+    positions = new BlockPos[CHUNKS * TRIMS_PER_CHUNK];
+    for (int i = 0; i < positions.length; i++) {
+      int chunkIndex = i / TRIMS_PER_CHUNK;
+      positions[i] = new BlockPos((chunkIndex & 31) * 16 + (i & 15), 64, (chunkIndex >> 5) * 16);
+      cache.put(positions[i], trim);
+    }
+    chunk = ChunkTrimCache.chunkOf(positions[0]);
+  }
+
+  @Benchmark
+  public ChunkTrimCache putChanged() {
+    BlockPos pos = positions[next++ & (positions.length - 1)];
+    cache.put(pos, (next & 1) == 0 ? trim : otherTrim);
+    return cache;
+  }
+
+  @Benchmark
+  public ChunkTrimCache putUnchanged() {
+    cache.put(positions[next++ & (positions.length - 1)], trim);
+    return cache;
+  }
+
+  @Benchmark
+  public Object get() {
+    return cache.get(chunk);
+  }
+
+  @Benchmark
+  public long hash() {
+    return cache.hash(chunk);
+  }
+}
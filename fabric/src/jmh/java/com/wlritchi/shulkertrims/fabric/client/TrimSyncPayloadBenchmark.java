@@ -0,0 +1,82 @@
+package com.wlritchi.shulkertrims.fabric.client;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding and decoding of the Paper sync payloads, {@link TrimSyncPayload} for single boxes and
+ * {@link ChunkTrimsPayload} for a chunk of {@link #CHUNK_TRIMS} boxes. Buffers are reused, so the
+ * allocation rate is the codecs' own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrimSyncPayloadBenchmark {
+  private static final int CHUNK_TRIMS = 64;
+
+  private final PacketByteBuf out = new PacketByteBuf(Unpooled.buffer(8192));
+  private final PacketByteBuf encoded = new PacketByteBuf(Unpooled.buffer());
+  private final PacketByteBuf encodedChunk = new PacketByteBuf(Unpooled.buffer());
+  private TrimSyncPayload payload;
+  private ChunkTrimsPayload chunkPayload;
+
+  @Setup
+  public void setup() {
+    ShulkerTrim trim = TrimRegistry.global().of("minecraft:wayfinder", "minecraft:netherite");
+    payload = new TrimSyncPayload(123, 64, -456, trim);
+
+    Long2ObjectMap<ShulkerTrim> trims = new Long2ObjectOpenHashMap<>();
+    for (int i = 0; i < CHUNK_TRIMS; i++) {
+      trims.put(BlockPos.asLong(i & 15, 64 + (i >> 4), 0), trim);
+    }
+    chunkPayload = new ChunkTrimsPayload(0, 0, trims);
+
+    TrimSyncPayload.CODEC.encode(encoded, payload);
+    ChunkTrimsPayload.CODEC.encode(encodedChunk, chunkPayload);
+  }
+
+  @Benchmark
+  public PacketByteBuf encode() {
+    out.clear();
+    TrimSyncPayload.CODEC.encode(out, payload);
+    return out;
+  }
+
+  @Benchmark
+  public TrimSyncPayload decode() {
+    encoded.readerIndex(0);
+    return TrimSyncPayload.CODEC.decode(encoded);
+  }
+
+  @Benchmark
+  public PacketByteBuf encodeChunk() {
+    out.clear();
+    ChunkTrimsPayload.CODEC.encode(out, chunkPayload);
+    return out;
+  }
+
+  @Benchmark
+  public ChunkTrimsPayload decodeChunk() {
+    encodedChunk.readerIndex(0);
+    return ChunkTrimsPayload.CODEC.decode(encodedChunk);
+  }
+}
@@ -0,0 +1,59 @@
+package com.wlritchi.shulkertrims.fabric;
+
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import net.minecraft.component.ComponentMap;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A shulker box block entity's cached trim, tied to the components it was read from. Published
+ * through a single atomic reference so threads serializing the chunk or building packets always see
+ * a trim together with its components, never a half-updated pair.
+ *
+ * <p>A holder created by {@link #pending} parses its components on first use, exactly once: readers
+ * that race to load the same components all get the holder that won the publish, and wait for its
+ * parse instead of starting their own.
+ */
+public final class CachedTrim {
+  private final @Nullable ComponentMap source;
+  private volatile boolean loaded;
+  private @Nullable ShulkerTrim trim;
+
+  private CachedTrim(@Nullable ComponentMap source, @Nullable ShulkerTrim trim, boolean loaded) {
+    this.source = source;
+    this.trim = trim;
+    this.loaded = loaded;
+  }
+
+  /**
+   * A holder with a known trim.
+   *
+   * @param source The component map the trim is valid for, or null if pinned by client sync data
+   * @param trim The trim, or null if untrimmed
+   */
+  public static CachedTrim of(@Nullable ComponentMap source, @Nullable ShulkerTrim trim) {
+    return new CachedTrim(source, trim, true);
+  }
+
+  /** A holder that reads its trim from {@code source} the first time it is asked for it. */
+  public static CachedTrim pending(ComponentMap source) {
+    return new CachedTrim(source, null, false);
+  }
+
+  /** Whether this holder is still valid for the block entity's current components. */
+  public boolean isValidFor(ComponentMap components) {
+    return source == null || source == components;
+  }
+
+  /** The cached trim, or null if untrimmed. Parses the source components on first call. */
+  public @Nullable ShulkerTrim trim() {
+    if (!loaded) {
+      synchronized (this) {
+        if (!loaded) {
+          trim = ShulkerTrimStorage.readTrim(source);
+          loaded = true;
+        }
+      }
+    }
+    return trim;
+  }
+}
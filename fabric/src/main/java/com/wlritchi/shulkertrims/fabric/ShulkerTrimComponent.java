@@ -0,0 +1,84 @@
+package com.wlritchi.shulkertrims.fabric;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import io.netty.buffer.ByteBuf;
+import java.util.function.Function;
+import net.minecraft.component.ComponentType;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Optional dedicated {@code shulker_trims:trim} data component.
+ *
+ * <p>Only registered when enabled in {@link ShulkerTrimsConfig}, because vanilla clients and Paper
+ * servers cannot decode unknown component types. When enabled, trims are stored as a typed value
+ * rather than a compound nested in custom_data, so reads skip NBT parsing and item comparison,
+ * hashing and network encoding operate on canonical {@link TrimRegistry} instances. Existing
+ * custom_data trims are migrated by {@link ShulkerTrimStorage} when boxes are placed, broken or
+ * crafted.
+ */
+public final class ShulkerTrimComponent {
+  private ShulkerTrimComponent() {}
+
+  public static final Identifier ID = Identifier.of(ShulkerTrimsMod.MOD_ID, "trim");
+
+  public static final Codec<ShulkerTrim> CODEC =
+      RecordCodecBuilder.<ShulkerTrim>create(
+              instance ->
+                  instance
+                      .group(
+                          Codec.STRING
+                              .fieldOf(ShulkerTrimStorage.PATTERN_KEY)
+                              .forGetter(ShulkerTrim::pattern),
+                          Codec.STRING
+                              .fieldOf(ShulkerTrimStorage.MATERIAL_KEY)
+                              .forGetter(ShulkerTrim::material))
+                      .apply(instance, ShulkerTrim::new))
+          .validate(
+              trim ->
+                  trim.isValid()
+                      ? DataResult.success(trim)
+                      : DataResult.error(() -> "Invalid trim identifiers: " + trim))
+          .xmap(trim -> TrimRegistry.global().intern(trim), Function.identity());
+
+  public static final PacketCodec<ByteBuf, ShulkerTrim> PACKET_CODEC =
+      PacketCodec.tuple(
+          PacketCodecs.STRING,
+          ShulkerTrim::pattern,
+          PacketCodecs.STRING,
+          ShulkerTrim::material,
+          (pattern, material) -> TrimRegistry.global().intern(new ShulkerTrim(pattern, material)));
+
+  private static @Nullable ComponentType<ShulkerTrim> type;
+
+  /** Register the component type. Call once during mod initialization, and only if enabled. */
+  public static void register() {
+    type =
+        Registry.register(
+            Registries.DATA_COMPONENT_TYPE,
+            ID,
+            ComponentType.<ShulkerTrim>builder()
+                .codec(CODEC)
+                .packetCodec(PACKET_CODEC)
+                .cache()
+                .build());
+    ShulkerTrimsMod.LOGGER.info("Registered dedicated trim component: {}", ID);
+  }
+
+  /**
+   * Get the registered component type.
+   *
+   * @return The component type, or null if the dedicated component is disabled
+   */
+  public static @Nullable ComponentType<ShulkerTrim> type() {
+    return type;
+  }
+}
@@ -1,7 +1,12 @@
 package com.wlritchi.shulkertrims.fabric;
 
 import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.component.ComponentMap;
+import net.minecraft.component.ComponentType;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.component.type.NbtComponent;
 import net.minecraft.item.ItemStack;
@@ -12,8 +17,12 @@ import org.jetbrains.annotations.Nullable;
 /**
  * Utility for reading/writing ShulkerTrim data to NBT and ItemStacks.
  *
- * <p>Storage strategy: - Items: Store in minecraft:custom_data component - Block entities: Vanilla
- * transfers custom_data to BE components on placement
+ * <p>Storage strategy: - Items: Store in minecraft:custom_data component, or the dedicated
+ * shulker_trims:trim component when enabled - Block entities: Vanilla transfers both to BE
+ * components on placement
+ *
+ * <p>Reads never modify what they read. With the dedicated component enabled, custom_data trims are
+ * moved to it only where the server writes anyway: placement, breaking and crafting.
  *
  * <p>When a shulker is placed, vanilla transfers custom_data to block entity components.
  * readComponents() reads from the transferred component. When a shulker is broken, addComponents()
@@ -30,6 +39,16 @@ public final class ShulkerTrimStorage {
   public static final String PATTERN_KEY = "pattern";
   public static final String MATERIAL_KEY = "material";
 
+  /** Vanilla has under 200 pattern/material pairs, so only datapacks could reach this. */
+  private static final int MAX_CANONICAL_CUSTOM_DATA = 1024;
+
+  /**
+   * Shared custom_data for items whose custom_data holds only a trim. Components are immutable, so
+   * all such items with the same trim can reference one instance.
+   */
+  private static final Map<ShulkerTrim, NbtComponent> CANONICAL_CUSTOM_DATA =
+      new ConcurrentHashMap<>();
+
   /**
    * Write trim data to an NBT compound.
    *
@@ -70,8 +89,8 @@ public final class ShulkerTrimStorage {
       return null;
     }
 
-    ShulkerTrim trim = new ShulkerTrim(patternOpt.get(), materialOpt.get());
-    if (!trim.isValid()) {
+    ShulkerTrim trim = TrimRegistry.global().of(patternOpt.get(), materialOpt.get());
+    if (trim == null) {
       ShulkerTrimsMod.LOGGER.warn(
           "Invalid trim identifiers: pattern={}, material={}", patternOpt.get(), materialOpt.get());
       return null;
@@ -81,49 +100,176 @@ public final class ShulkerTrimStorage {
   }
 
   /**
-   * Read trim data from an ItemStack's custom_data component.
+   * Read trim data from a custom_data component without copying it.
+   *
+   * <p>Components are immutable, so we read the backing compound in place rather than paying for
+   * {@link NbtComponent#copyNbt()}, which deep-copies everything other mods have stored alongside
+   * the trim.
+   *
+   * @param customData The component to read from
+   * @return The trim, or null if no valid trim data found
+   */
+  @Nullable
+  @SuppressWarnings("deprecation")
+  public static ShulkerTrim readTrim(NbtComponent customData) {
+    if (!customData.contains(TRIM_KEY)) {
+      return null;
+    }
+    // getNbt() is safe here: the compound is only read, never mutated
+    return readTrim(customData.getNbt());
+  }
+
+  /**
+   * Read trim data from a component map, such as a block entity's components. Checks the dedicated
+   * trim component first (if enabled), then custom_data.
+   *
+   * @param components The components to read from
+   * @return The trim, or null if no valid trim data found
+   */
+  @Nullable
+  public static ShulkerTrim readTrim(ComponentMap components) {
+    ComponentType<ShulkerTrim> trimType = ShulkerTrimComponent.type();
+    if (trimType != null) {
+      ShulkerTrim trim = components.get(trimType);
+      if (trim != null) {
+        return trim;
+      }
+    }
+    NbtComponent customData = components.get(DataComponentTypes.CUSTOM_DATA);
+    return customData != null ? readTrim(customData) : null;
+  }
+
+  /**
+   * Read trim data from an ItemStack. Checks the dedicated trim component first (if enabled), then
+   * custom_data. Never modifies the stack.
    *
    * @param stack The item stack to read from
    * @return The trim, or null if no valid trim data found
    */
   @Nullable
   public static ShulkerTrim readTrimFromItem(ItemStack stack) {
+    ComponentType<ShulkerTrim> trimType = ShulkerTrimComponent.type();
+    if (trimType != null) {
+      ShulkerTrim trim = stack.get(trimType);
+      if (trim != null) {
+        return trim;
+      }
+    }
     NbtComponent customData = stack.get(DataComponentTypes.CUSTOM_DATA);
-    if (customData != null) {
-      return readTrim(customData.copyNbt());
+    return customData != null ? readTrim(customData) : null;
+  }
+
+  /**
+   * Move a trim stored in custom_data to the dedicated trim component, if it is enabled. Used when
+   * a placed shulker box takes its components from the item.
+   *
+   * @param components The components to migrate
+   * @return The migrated components, or the same instance if there was nothing to migrate
+   */
+  public static ComponentMap migrateTrim(ComponentMap components) {
+    ComponentType<ShulkerTrim> trimType = ShulkerTrimComponent.type();
+    NbtComponent customData = components.get(DataComponentTypes.CUSTOM_DATA);
+    if (trimType == null || customData == null || !customData.contains(TRIM_KEY)) {
+      return components;
     }
-    return null;
+    ShulkerTrim trim = components.get(trimType);
+    if (trim == null) {
+      trim = readTrim(customData);
+      if (trim == null) {
+        // Leave invalid trim data where it is rather than silently dropping it
+        return components;
+      }
+    }
+
+    NbtCompound nbt = customData.copyNbt();
+    nbt.remove(TRIM_KEY);
+    return ComponentMap.builder()
+        .addAll(components)
+        .add(DataComponentTypes.CUSTOM_DATA, nbt.isEmpty() ? null : NbtComponent.of(nbt))
+        .add(trimType, TrimRegistry.global().intern(trim))
+        .build();
   }
 
   /**
-   * Write trim data to an ItemStack's custom_data component.
+   * Write trim data to an ItemStack, using the dedicated trim component if enabled and custom_data
+   * otherwise.
    *
    * @param stack The item stack to write to
    * @param trim The trim to write, or null to remove
    */
   public static void writeTrimToItem(ItemStack stack, @Nullable ShulkerTrim trim) {
-    if (trim == null) {
-      // Remove trim from custom_data if present
-      NbtComponent customData = stack.get(DataComponentTypes.CUSTOM_DATA);
-      if (customData != null) {
-        NbtCompound nbt = customData.copyNbt();
-        nbt.remove(TRIM_KEY);
-        if (nbt.isEmpty()) {
-          stack.remove(DataComponentTypes.CUSTOM_DATA);
-        } else {
-          stack.set(DataComponentTypes.CUSTOM_DATA, NbtComponent.of(nbt));
-        }
+    ComponentType<ShulkerTrim> trimType = ShulkerTrimComponent.type();
+    if (trimType != null) {
+      // Never leave a second copy behind in custom_data
+      removeTrimFromCustomData(stack);
+      if (trim == null) {
+        stack.remove(trimType);
+      } else {
+        stack.set(trimType, TrimRegistry.global().intern(trim));
       }
       return;
     }
 
-    // Get or create custom_data
+    if (trim == null) {
+      removeTrimFromCustomData(stack);
+      return;
+    }
+
     NbtComponent customData = stack.get(DataComponentTypes.CUSTOM_DATA);
-    NbtCompound nbt = customData != null ? customData.copyNbt() : new NbtCompound();
+    if (customData == null || isTrimOnly(customData)) {
+      stack.set(DataComponentTypes.CUSTOM_DATA, getTrimOnlyCustomData(trim));
+      return;
+    }
+    if (trim.equals(readTrim(customData))) {
+      // Already present alongside other data; nothing to rewrite
+      return;
+    }
+
+    NbtCompound nbt = customData.copyNbt();
     writeTrim(nbt, trim);
     stack.set(DataComponentTypes.CUSTOM_DATA, NbtComponent.of(nbt));
   }
 
+  /** Get the shared custom_data holding only the given trim. */
+  private static NbtComponent getTrimOnlyCustomData(ShulkerTrim trim) {
+    NbtComponent cached = CANONICAL_CUSTOM_DATA.get(trim);
+    if (cached != null) {
+      return cached;
+    }
+
+    NbtCompound nbt = new NbtCompound();
+    writeTrim(nbt, trim);
+    NbtComponent created = NbtComponent.of(nbt);
+    if (CANONICAL_CUSTOM_DATA.size() >= MAX_CANONICAL_CUSTOM_DATA) {
+      return created;
+    }
+    NbtComponent existing = CANONICAL_CUSTOM_DATA.putIfAbsent(trim, created);
+    return existing != null ? existing : created;
+  }
+
+  /** Whether custom_data holds at most a trim, so it can be replaced wholesale. */
+  @SuppressWarnings("deprecation")
+  private static boolean isTrimOnly(NbtComponent customData) {
+    // getNbt() is safe here: the compound is only read, never mutated
+    int size = customData.getNbt().getSize();
+    return size == 0 || (size == 1 && customData.contains(TRIM_KEY));
+  }
+
+  /** Remove trim from custom_data if present, dropping the component if nothing else remains. */
+  private static void removeTrimFromCustomData(ItemStack stack) {
+    NbtComponent customData = stack.get(DataComponentTypes.CUSTOM_DATA);
+    if (customData == null || !customData.contains(TRIM_KEY)) {
+      return;
+    }
+    NbtCompound nbt = customData.copyNbt();
+    nbt.remove(TRIM_KEY);
+    if (nbt.isEmpty()) {
+      stack.remove(DataComponentTypes.CUSTOM_DATA);
+    } else {
+      stack.set(DataComponentTypes.CUSTOM_DATA, NbtComponent.of(nbt));
+    }
+  }
+
   /**
    * Read trim data from a ReadView (1.21.10+ block entity data format).
    *
@@ -141,13 +287,17 @@ public final class ShulkerTrimStorage {
     Optional<String> pattern = trimView.getOptionalString(PATTERN_KEY);
     Optional<String> material = trimView.getOptionalString(MATERIAL_KEY);
 
+    if (pattern.isEmpty() && material.isEmpty()) {
+      // Empty compound is the update packet's marker for a removed trim
+      return null;
+    }
     if (pattern.isEmpty() || material.isEmpty()) {
       ShulkerTrimsMod.LOGGER.warn("Invalid trim data structure: missing pattern or material");
       return null;
     }
 
-    ShulkerTrim trim = new ShulkerTrim(pattern.get(), material.get());
-    if (!trim.isValid()) {
+    ShulkerTrim trim = TrimRegistry.global().of(pattern.get(), material.get());
+    if (trim == null) {
       ShulkerTrimsMod.LOGGER.warn(
           "Invalid trim identifiers: pattern={}, material={}", pattern.get(), material.get());
       return null;
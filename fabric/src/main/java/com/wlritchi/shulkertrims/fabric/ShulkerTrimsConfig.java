@@ -0,0 +1,131 @@
+package com.wlritchi.shulkertrims.fabric;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import net.fabricmc.loader.api.FabricLoader;
+
+/**
+ * Mod configuration, loaded once at startup from {@code config/shulker_trims.properties}.
+ *
+ * <p>Missing or unreadable files fall back to defaults. A file containing the defaults is written
+ * on first launch so the available options are discoverable.
+ */
+public final class ShulkerTrimsConfig {
+  private ShulkerTrimsConfig() {}
+
+  private static final String FILE_NAME = "shulker_trims.properties";
+
+  private static final String TRIM_COMPONENT_KEY = "trim_component";
+  private static final String TRIM_DETAIL_DISTANCE_KEY = "trim_detail_distance";
+  private static final String TRIM_DETAIL_FADE_KEY = "trim_detail_fade";
+  private static final String TRIM_COMPOSITE_KEY = "trim_composite";
+
+  private static final double DEFAULT_TRIM_DETAIL_DISTANCE = 64.0;
+  private static final double DEFAULT_TRIM_DETAIL_FADE = 16.0;
+
+  private static boolean trimComponent = false;
+  private static double trimDetailDistance = DEFAULT_TRIM_DETAIL_DISTANCE;
+  private static double trimDetailFade = DEFAULT_TRIM_DETAIL_FADE;
+  private static boolean trimComposite = true;
+
+  /** Load configuration from the Fabric config directory, writing defaults if absent. */
+  public static void load() {
+    Path path = FabricLoader.getInstance().getConfigDir().resolve(FILE_NAME);
+    Properties props = new Properties();
+
+    if (Files.exists(path)) {
+      try (Reader reader = Files.newBufferedReader(path)) {
+        props.load(reader);
+      } catch (IOException e) {
+        ShulkerTrimsMod.LOGGER.warn("Failed to read {}, using defaults", path, e);
+      }
+    } else {
+      writeDefaults(path);
+    }
+
+    trimComponent = Boolean.parseBoolean(props.getProperty(TRIM_COMPONENT_KEY, "false"));
+    trimDetailDistance =
+        parseNonNegative(props, TRIM_DETAIL_DISTANCE_KEY, DEFAULT_TRIM_DETAIL_DISTANCE);
+    trimDetailFade = parseNonNegative(props, TRIM_DETAIL_FADE_KEY, DEFAULT_TRIM_DETAIL_FADE);
+    trimComposite = Boolean.parseBoolean(props.getProperty(TRIM_COMPOSITE_KEY, "true"));
+  }
+
+  /**
+   * Whether trims are stored in the dedicated {@code shulker_trims:trim} data component instead of
+   * {@code minecraft:custom_data}. Only safe when every client and server runs this mod, since
+   * vanilla clients and Paper cannot decode the component.
+   */
+  public static boolean trimComponent() {
+    return trimComponent;
+  }
+
+  /**
+   * Distance in blocks beyond which trim overlays on placed shulker boxes are not drawn, or 0 to
+   * always draw them. Client-side only.
+   */
+  public static double trimDetailDistance() {
+    return trimDetailDistance;
+  }
+
+  /**
+   * Width in blocks of the band inside {@link #trimDetailDistance()} over which trim overlays drop
+   * out, or 0 for a hard cutoff. Client-side only.
+   */
+  public static double trimDetailFade() {
+    return trimDetailFade;
+  }
+
+  /**
+   * Whether placed trimmed shulker boxes are drawn in one pass using a box texture with the trim
+   * composited in, rather than the box followed by a trim overlay. Client-side only.
+   */
+  public static boolean trimComposite() {
+    return trimComposite;
+  }
+
+  private static double parseNonNegative(Properties props, String key, double defaultValue) {
+    String value = props.getProperty(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      double parsed = Double.parseDouble(value.trim());
+      if (parsed >= 0 && Double.isFinite(parsed)) {
+        return parsed;
+      }
+    } catch (NumberFormatException e) {
+      // Fall through to the warning below
+    }
+    ShulkerTrimsMod.LOGGER.warn("Invalid value for {}: {}, using {}", key, value, defaultValue);
+    return defaultValue;
+  }
+
+  private static void writeDefaults(Path path) {
+    Properties defaults = new Properties();
+    defaults.setProperty(TRIM_COMPONENT_KEY, "false");
+    defaults.setProperty(TRIM_DETAIL_DISTANCE_KEY, Double.toString(DEFAULT_TRIM_DETAIL_DISTANCE));
+    defaults.setProperty(TRIM_DETAIL_FADE_KEY, Double.toString(DEFAULT_TRIM_DETAIL_FADE));
+    defaults.setProperty(TRIM_COMPOSITE_KEY, "true");
+
+    try {
+      Files.createDirectories(path.getParent());
+      try (Writer writer = Files.newBufferedWriter(path)) {
+        defaults.store(
+            writer,
+            "Shulker Trims configuration\n"
+                + "trim_component: store trims in a dedicated shulker_trims:trim component"
+                + " (requires the mod on every client and server)\n"
+                + "trim_detail_distance: blocks beyond which placed trims are not drawn"
+                + " (0 = always draw)\n"
+                + "trim_detail_fade: width of the band before that distance where trims drop out\n"
+                + "trim_composite: draw placed trimmed boxes in one pass with composited textures");
+      }
+    } catch (IOException e) {
+      ShulkerTrimsMod.LOGGER.warn("Failed to write default config to {}", path, e);
+    }
+  }
+}
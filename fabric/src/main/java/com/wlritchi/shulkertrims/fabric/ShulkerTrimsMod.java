@@ -1,6 +1,7 @@
 package com.wlritchi.shulkertrims.fabric;
 
 import com.wlritchi.shulkertrims.fabric.recipe.ShulkerTrimsRecipeSerializers;
+import com.wlritchi.shulkertrims.fabric.recipe.TrimTemplatePatterns;
 import net.fabricmc.api.ModInitializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,8 +14,17 @@ public class ShulkerTrimsMod implements ModInitializer {
   public void onInitialize() {
     LOGGER.info("Shulker Trims initializing...");
 
-    // Register recipe serializers
+    ShulkerTrimsConfig.load();
+    if (ShulkerTrimsConfig.trimComponent()) {
+      ShulkerTrimComponent.register();
+    }
+
+    // Register recipe serializers and the template lookup the recipe resolves patterns through
     ShulkerTrimsRecipeSerializers.register();
+    TrimTemplatePatterns.register();
+
+    // Compact trim IDs follow the server's trim registries
+    TrimRegistries.register();
 
     LOGGER.info("Shulker Trims initialized");
   }
@@ -0,0 +1,60 @@
+package com.wlritchi.shulkertrims.fabric;
+
+import com.wlritchi.shulkertrims.common.TrimMaterials;
+import com.wlritchi.shulkertrims.common.TrimRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.item.equipment.trim.ArmorTrimMaterial;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.text.TextColor;
+
+/**
+ * Keeps the common {@link TrimRegistry} indexed from the game's trim pattern and material
+ * registries, so indices cover what the server actually has loaded, datapacks included. The {@link
+ * TrimMaterials} palette is rebuilt alongside it from each material's description color.
+ */
+public final class TrimRegistries {
+  private TrimRegistries() {}
+
+  /** Rebuild the index when the server starts. Clients rebuild on join via {@link #rebuild}. */
+  public static void register() {
+    ServerLifecycleEvents.SERVER_STARTING.register(
+        (MinecraftServer server) -> rebuild(server.getRegistryManager()));
+  }
+
+  /**
+   * Reassign trim indices from the pattern and material registries in the given lookup, then
+   * rebuild the material color palette against the new indices.
+   */
+  public static void rebuild(RegistryWrapper.WrapperLookup registries) {
+    List<String> patterns = ids(registries.getOrThrow(RegistryKeys.TRIM_PATTERN));
+    List<String> materials = ids(registries.getOrThrow(RegistryKeys.TRIM_MATERIAL));
+    TrimRegistry.global().rebuild(patterns, materials);
+    TrimMaterials.rebuild(colors(registries.getOrThrow(RegistryKeys.TRIM_MATERIAL)));
+    ShulkerTrimsMod.LOGGER.info(
+        "Indexed {} trim patterns and {} trim materials", patterns.size(), materials.size());
+  }
+
+  private static List<String> ids(RegistryWrapper<?> registry) {
+    return registry.streamKeys().map(key -> key.getValue().toString()).toList();
+  }
+
+  /** Material colors as vanilla shows them, from the color of each material's description. */
+  private static Map<String, Integer> colors(RegistryWrapper<ArmorTrimMaterial> registry) {
+    Map<String, Integer> colors = new HashMap<>();
+    registry
+        .streamEntries()
+        .forEach(
+            entry -> {
+              TextColor color = entry.value().description().getStyle().getColor();
+              colors.put(
+                  entry.registryKey().getValue().toString(),
+                  color != null ? color.getRgb() : TrimMaterials.DEFAULT_COLOR);
+            });
+    return colors;
+  }
+}
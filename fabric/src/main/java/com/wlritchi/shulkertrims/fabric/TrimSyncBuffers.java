@@ -0,0 +1,48 @@
+package com.wlritchi.shulkertrims.fabric;
+
+import com.wlritchi.shulkertrims.common.TrimSyncCodec;
+import io.netty.buffer.ByteBuf;
+import java.nio.ByteBuffer;
+
+/**
+ * Adapts Netty buffers to {@link TrimSyncCodec}, which works on NIO buffers. Heap buffers are
+ * written in place through their backing array; other buffers are encoded into a scratch buffer and
+ * copied in, since Netty's NIO views of them may be copies that writes would miss.
+ */
+public final class TrimSyncBuffers {
+  private TrimSyncBuffers() {}
+
+  /**
+   * Get a buffer for the next {@code size} bytes written to a Netty buffer. Pass it to {@link
+   * #endWrite} once the message is encoded.
+   */
+  public static ByteBuffer beginWrite(ByteBuf buf, int size) {
+    buf.ensureWritable(size);
+    if (buf.hasArray()) {
+      return ByteBuffer.wrap(buf.array(), buf.arrayOffset() + buf.writerIndex(), size).slice();
+    }
+    return ByteBuffer.allocate(size);
+  }
+
+  /** Commit the bytes encoded into a buffer from {@link #beginWrite}. */
+  public static void endWrite(ByteBuf buf, ByteBuffer out) {
+    if (buf.hasArray() && out.hasArray() && out.array() == buf.array()) {
+      buf.writerIndex(buf.writerIndex() + out.position());
+    } else {
+      buf.writeBytes(out.flip());
+    }
+  }
+
+  /**
+   * Get a buffer over a Netty buffer's readable bytes. Pass it to {@link #endRead} when done. The
+   * buffer may be a copy, which is fine for reading.
+   */
+  public static ByteBuffer beginRead(ByteBuf buf) {
+    return buf.nioBuffer();
+  }
+
+  /** Consume the bytes decoded from a buffer from {@link #beginRead}. */
+  public static void endRead(ByteBuf buf, ByteBuffer in) {
+    buf.skipBytes(in.position());
+  }
+}
@@ -0,0 +1,44 @@
+package com.wlritchi.shulkertrims.fabric.mixin;
+
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimStorage;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.block.entity.ShulkerBoxBlockEntity;
+import net.minecraft.component.ComponentMap;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Mixin to migrate custom_data trims to the dedicated trim component when a shulker box is placed.
+ * Vanilla copies the item's components onto the block entity in a final BlockEntity method, so this
+ * can't live in {@link ShulkerBoxBlockEntityMixin}.
+ */
+@Mixin(BlockEntity.class)
+public abstract class BlockEntityMixin {
+
+  @Shadow @Nullable protected World world;
+
+  @Shadow
+  public abstract ComponentMap getComponents();
+
+  @Shadow
+  public abstract void setComponents(ComponentMap components);
+
+  @Inject(method = "readComponents(Lnet/minecraft/item/ItemStack;)V", at = @At("RETURN"))
+  private void shulkerTrims$migratePlacedTrim(ItemStack stack, CallbackInfo ci) {
+    if (!((Object) this instanceof ShulkerBoxBlockEntity) || !(this.world instanceof ServerWorld)) {
+      return;
+    }
+    ComponentMap components = this.getComponents();
+    ComponentMap migrated = ShulkerTrimStorage.migrateTrim(components);
+    if (migrated != components) {
+      this.setComponents(migrated);
+    }
+  }
+}
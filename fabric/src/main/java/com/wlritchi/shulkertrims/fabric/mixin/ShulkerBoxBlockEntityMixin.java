@@ -1,14 +1,16 @@
 package com.wlritchi.shulkertrims.fabric.mixin;
 
 import com.wlritchi.shulkertrims.common.ShulkerTrim;
+import com.wlritchi.shulkertrims.fabric.CachedTrim;
 import com.wlritchi.shulkertrims.fabric.ShulkerTrimStorage;
 import com.wlritchi.shulkertrims.fabric.TrimmedShulkerBox;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.block.entity.BlockEntityType;
 import net.minecraft.block.entity.ShulkerBoxBlockEntity;
-import net.minecraft.component.DataComponentTypes;
-import net.minecraft.component.type.NbtComponent;
+import net.minecraft.component.ComponentMap;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.listener.ClientPlayPacketListener;
 import net.minecraft.network.packet.Packet;
@@ -25,7 +27,8 @@ import org.spongepowered.asm.mixin.Unique;
  *
  * <p>Strategy: Let vanilla handle all component persistence (custom_data transfers automatically).
  * We just read the trim from BE components when needed, and cache it for rendering performance. For
- * client sync, we include the trim in the initial chunk data.
+ * client sync, we include the trim in the initial chunk data, and send a trim-only update packet
+ * whenever the trim differs from the last one broadcast in an update packet.
  */
 @Mixin(ShulkerBoxBlockEntity.class)
 public abstract class ShulkerBoxBlockEntityMixin extends BlockEntity implements TrimmedShulkerBox {
@@ -34,27 +37,41 @@ public abstract class ShulkerBoxBlockEntityMixin extends BlockEntity implements
     super(type, pos, state);
   }
 
-  @Unique private @Nullable ShulkerTrim shulkerTrims$cachedTrim;
+  /**
+   * Cached trim, or null if not yet loaded. Chunk saving and packet building may read this off the
+   * server thread, so it is replaced atomically rather than updated field by field. Components are
+   * immutable and replaced wholesale (placement, /data, setComponents), so a holder for a different
+   * component map is stale.
+   */
+  @Unique private final AtomicReference<CachedTrim> shulkerTrims$cache = new AtomicReference<>();
 
-  @Unique private boolean shulkerTrims$trimLoaded = false;
+  /**
+   * The trim most recently broadcast in an update packet. Initial chunk data goes to one watcher at
+   * a time, so it never updates this: a watcher loading the chunk must not suppress the update owed
+   * to everyone already watching.
+   */
+  @Unique private volatile @Nullable ShulkerTrim shulkerTrims$syncedTrim;
 
   @Override
   public @Nullable ShulkerTrim shulkerTrims$getTrim() {
-    // Lazy-load trim from BE components
-    if (!this.shulkerTrims$trimLoaded) {
-      this.shulkerTrims$trimLoaded = true;
-      NbtComponent customData = this.getComponents().get(DataComponentTypes.CUSTOM_DATA);
-      if (customData != null) {
-        this.shulkerTrims$cachedTrim = ShulkerTrimStorage.readTrim(customData.copyNbt());
+    ComponentMap components = this.getComponents();
+    CachedTrim cache = this.shulkerTrims$cache.get();
+    while (cache == null || !cache.isValidFor(components)) {
+      // Lazy-load trim from BE components. Only the reader whose holder is published parses; the
+      // rest pick up that holder and wait for its result rather than parsing again.
+      CachedTrim pending = CachedTrim.pending(components);
+      if (this.shulkerTrims$cache.compareAndSet(cache, pending)) {
+        cache = pending;
+      } else {
+        cache = this.shulkerTrims$cache.get();
       }
     }
-    return this.shulkerTrims$cachedTrim;
+    return cache.trim();
   }
 
   @Override
   public void shulkerTrims$setTrim(@Nullable ShulkerTrim trim) {
-    this.shulkerTrims$cachedTrim = trim;
-    this.shulkerTrims$trimLoaded = true;
+    this.shulkerTrims$cache.set(CachedTrim.of(this.getComponents(), trim));
     this.markDirty();
   }
 
@@ -72,10 +89,28 @@ public abstract class ShulkerBoxBlockEntityMixin extends BlockEntity implements
     return nbt;
   }
 
-  /** Return update packet for runtime block entity syncs (e.g., dispenser placement). */
+  /**
+   * Return an update packet only when the trim has changed since the last one broadcast (e.g.,
+   * dispenser placement or /data edits). Untrimmed and unchanged shulkers keep vanilla behavior and
+   * send nothing.
+   */
   @Override
-  public Packet<ClientPlayPacketListener> toUpdatePacket() {
-    return BlockEntityUpdateS2CPacket.create(this);
+  public @Nullable Packet<ClientPlayPacketListener> toUpdatePacket() {
+    ShulkerTrim trim = this.shulkerTrims$getTrim();
+    if (Objects.equals(trim, this.shulkerTrims$syncedTrim)) {
+      return super.toUpdatePacket();
+    }
+    this.shulkerTrims$syncedTrim = trim;
+
+    // Trim-only payload. A removed trim is sent as an empty compound so the packet isn't empty
+    // (the client ignores empty update NBT) and readData clears the client's cached trim.
+    NbtCompound nbt = new NbtCompound();
+    if (trim != null) {
+      ShulkerTrimStorage.writeTrim(nbt, trim);
+    } else {
+      nbt.put(ShulkerTrimStorage.TRIM_KEY, new NbtCompound());
+    }
+    return BlockEntityUpdateS2CPacket.create(this, (blockEntity, registries) -> nbt);
   }
 
   /** Read trim from sync NBT on client, or from components on disk load. */
@@ -83,15 +118,10 @@ public abstract class ShulkerBoxBlockEntityMixin extends BlockEntity implements
   public void readData(ReadView data) {
     super.readData(data);
 
-    // Reset cache - will be lazy-loaded from components
-    this.shulkerTrims$trimLoaded = false;
-    this.shulkerTrims$cachedTrim = null;
-
-    // Check for sync data (top-level NBT from toInitialChunkDataNbt)
+    // Check for sync data (top-level NBT from toInitialChunkDataNbt). Sync data only reaches the
+    // client, which never receives components, so the trim is pinned rather than tied to them.
+    // Otherwise reset the cache so the trim is lazy-loaded from components.
     ShulkerTrim syncTrim = ShulkerTrimStorage.readTrimFromData(data);
-    if (syncTrim != null) {
-      this.shulkerTrims$cachedTrim = syncTrim;
-      this.shulkerTrims$trimLoaded = true;
-    }
+    this.shulkerTrims$cache.set(syncTrim != null ? CachedTrim.of(null, syncTrim) : null);
   }
 }
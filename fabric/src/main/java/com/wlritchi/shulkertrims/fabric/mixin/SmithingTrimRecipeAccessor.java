@@ -0,0 +1,14 @@
+package com.wlritchi.shulkertrims.fabric.mixin;
+
+import net.minecraft.item.equipment.trim.ArmorTrimPattern;
+import net.minecraft.recipe.SmithingTrimRecipe;
+import net.minecraft.registry.entry.RegistryEntry;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/** Accessor for the trim pattern a vanilla smithing_trim recipe applies. */
+@Mixin(SmithingTrimRecipe.class)
+public interface SmithingTrimRecipeAccessor {
+  @Accessor("pattern")
+  RegistryEntry<ArmorTrimPattern> shulkerTrims$getPattern();
+}
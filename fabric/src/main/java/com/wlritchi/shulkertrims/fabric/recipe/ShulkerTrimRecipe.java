@@ -9,6 +9,7 @@ import java.util.Optional;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.equipment.trim.ArmorTrimMaterial;
 import net.minecraft.item.equipment.trim.ArmorTrimMaterials;
+import net.minecraft.item.equipment.trim.ArmorTrimPattern;
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.recipe.Ingredient;
@@ -16,12 +17,14 @@ import net.minecraft.recipe.IngredientPlacement;
 import net.minecraft.recipe.RecipeSerializer;
 import net.minecraft.recipe.SmithingRecipe;
 import net.minecraft.recipe.input.SmithingRecipeInput;
-import net.minecraft.registry.Registries;
 import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.registry.entry.RegistryEntry;
-import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
 
-/** Smithing recipe that applies armor trim patterns to shulker boxes. */
+/**
+ * Smithing recipe that applies armor trim patterns to shulker boxes. A single data-driven instance
+ * covers every pattern; the pattern is resolved from the template item at craft time.
+ */
 public class ShulkerTrimRecipe implements SmithingRecipe {
   private final Ingredient template;
   private final Ingredient base;
@@ -34,6 +37,17 @@ public class ShulkerTrimRecipe implements SmithingRecipe {
     this.addition = addition;
   }
 
+  /**
+   * Match on base and addition ingredients, and resolve the template through {@link
+   * TrimTemplatePatterns} rather than testing it against every known template.
+   */
+  @Override
+  public boolean matches(SmithingRecipeInput input, World world) {
+    return base.test(input.base())
+        && addition.test(input.addition())
+        && TrimTemplatePatterns.get(input.template()) != null;
+  }
+
   @Override
   public ItemStack craft(SmithingRecipeInput input, RegistryWrapper.WrapperLookup registries) {
     ItemStack baseStack = input.base();
@@ -41,12 +55,9 @@ public class ShulkerTrimRecipe implements SmithingRecipe {
       return ItemStack.EMPTY;
     }
 
-    // Get pattern from template item ID
-    // Template items follow pattern: {pattern}_armor_trim_smithing_template
-    ItemStack templateStack = input.template();
-    Identifier itemId = Registries.ITEM.getId(templateStack.getItem());
-    String patternName = extractPatternFromTemplateId(itemId);
-    if (patternName == null) {
+    // Get pattern from the template via the trim recipe index
+    RegistryEntry<ArmorTrimPattern> patternEntry = TrimTemplatePatterns.get(input.template());
+    if (patternEntry == null) {
       return ItemStack.EMPTY;
     }
 
@@ -60,7 +71,7 @@ public class ShulkerTrimRecipe implements SmithingRecipe {
 
     // Create result - copy base stack and apply trim to custom_data
     ItemStack result = baseStack.copyWithCount(1);
-    String pattern = itemId.getNamespace() + ":" + patternName;
+    String pattern = patternEntry.getIdAsString();
     String material = materialEntry.get().getIdAsString();
     ShulkerTrim trim = new ShulkerTrim(pattern, material);
     ShulkerTrimStorage.writeTrimToItem(result, trim);
@@ -68,19 +79,6 @@ public class ShulkerTrimRecipe implements SmithingRecipe {
     return result;
   }
 
-  /**
-   * Extract pattern name from template item ID. Example: "wild_armor_trim_smithing_template" ->
-   * "wild"
-   */
-  private static String extractPatternFromTemplateId(Identifier itemId) {
-    String path = itemId.getPath();
-    String suffix = "_armor_trim_smithing_template";
-    if (path.endsWith(suffix)) {
-      return path.substring(0, path.length() - suffix.length());
-    }
-    return null;
-  }
-
   @Override
   public Optional<Ingredient> template() {
     return Optional.of(template);
@@ -0,0 +1,68 @@
+package com.wlritchi.shulkertrims.fabric.recipe;
+
+import com.wlritchi.shulkertrims.fabric.ShulkerTrimsMod;
+import com.wlritchi.shulkertrims.fabric.mixin.SmithingTrimRecipeAccessor;
+import java.util.HashMap;
+import java.util.Map;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.equipment.trim.ArmorTrimPattern;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.recipe.SmithingTrimRecipe;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.server.MinecraftServer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Lookup table from smithing template item to the trim pattern it applies.
+ *
+ * <p>Since 1.21.5, trim patterns no longer name their template item; the link lives in the vanilla
+ * {@code smithing_trim} recipes. We index those recipes once per datapack load, so a single shulker
+ * trim recipe can resolve any template (including datapack-added patterns) with one map lookup.
+ */
+public final class TrimTemplatePatterns {
+  private TrimTemplatePatterns() {}
+
+  private static volatile Map<Item, RegistryEntry<ArmorTrimPattern>> patterns = Map.of();
+
+  /** Rebuild the table when the server starts and after every successful datapack reload. */
+  public static void register() {
+    ServerLifecycleEvents.SERVER_STARTING.register(TrimTemplatePatterns::rebuild);
+    ServerLifecycleEvents.END_DATA_PACK_RELOAD.register(
+        (server, resourceManager, success) -> {
+          if (success) {
+            rebuild(server);
+          }
+        });
+  }
+
+  /**
+   * Get the trim pattern applied by a smithing template.
+   *
+   * @param template The template stack
+   * @return The pattern, or null if the item is not a known trim template
+   */
+  @Nullable
+  public static RegistryEntry<ArmorTrimPattern> get(ItemStack template) {
+    return patterns.get(template.getItem());
+  }
+
+  /** Rebuild the table from the server's currently loaded trim recipes. */
+  public static void rebuild(MinecraftServer server) {
+    Map<Item, RegistryEntry<ArmorTrimPattern>> table = new HashMap<>();
+    for (RecipeEntry<?> entry : server.getRecipeManager().values()) {
+      if (entry.value() instanceof SmithingTrimRecipe trimRecipe) {
+        RegistryEntry<ArmorTrimPattern> pattern =
+            ((SmithingTrimRecipeAccessor) trimRecipe).shulkerTrims$getPattern();
+        trimRecipe
+            .template()
+            .ifPresent(
+                template ->
+                    template.getMatchingItems().forEach(item -> table.put(item.value(), pattern)));
+      }
+    }
+    patterns = Map.copyOf(table);
+    ShulkerTrimsMod.LOGGER.info("Indexed {} trim templates", table.size());
+  }
+}